@@ -3,21 +3,48 @@ package com.agentic.riskai.ro.controller;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 
+import com.agentic.riskai.ro.model.AnalysisJobEntity;
 import com.agentic.riskai.ro.model.AnalysisRequest;
+import com.agentic.riskai.ro.model.AnalysisType;
+import com.agentic.riskai.ro.model.BatchAnalysisStatus;
+import com.agentic.riskai.ro.model.BulkIngestionStatus;
 import com.agentic.riskai.ro.model.DocumentUploadRequest;
+import com.agentic.riskai.ro.model.KeysetPage;
+import com.agentic.riskai.ro.model.PriorityLevel;
 import com.agentic.riskai.ro.model.RiskAnalysisResult;
 import com.agentic.riskai.ro.model.RiskOpportunityEntity;
+import com.agentic.riskai.ro.model.RiskOpportunitySummary;
+import com.agentic.riskai.ro.model.RiskSummary;
+import com.agentic.riskai.ro.rag.MetadataFilter;
+import com.agentic.riskai.ro.service.AnalysisJobService;
+import com.agentic.riskai.ro.service.BatchAnalysisService;
+import com.agentic.riskai.ro.service.BulkIngestionService;
 import com.agentic.riskai.ro.service.RagService;
+import com.agentic.riskai.ro.service.RiskAggregateService;
 import com.agentic.riskai.ro.service.RiskOpportunityAIService;
 import com.agentic.riskai.ro.service.RiskOpportunityService;
 import java.time.LocalDateTime;
 import org.springframework.http.HttpStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/risk-opportunity")
@@ -32,29 +59,120 @@ public class RiskOpportunityController {
 
     @Autowired
     private RiskOpportunityService riskOpportunityService;
+
+    @Autowired
+    private BulkIngestionService bulkIngestionService;
+
+    @Autowired
+    private BatchAnalysisService batchAnalysisService;
+
+    @Autowired
+    private AnalysisJobService analysisJobService;
+
+    @Autowired
+    private RiskAggregateService riskAggregateService;
+
+    // Spring Boot's task executor, for blocking work that follows an async Gemini call
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor applicationTaskExecutor;
+
+    @Value("${spring.mvc.async.request-timeout:180s}")
+    private Duration streamTimeout;
    
     
     @PostMapping("/analyze")
-    public ResponseEntity<RiskOpportunityEntity> analyzeRiskOpportunity(
+    public CompletableFuture<ResponseEntity<RiskOpportunityEntity>> analyzeRiskOpportunity(
             @RequestBody AnalysisRequest request) {
         
-        RiskAnalysisResult aiResult = aiService.analyzeRiskOpportunity(
-            request.getDescription(), request.getType());
-        
-        RiskOpportunityEntity entity = riskOpportunityService.saveAnalysis(
-            request.getTitle(),
-            request.getDescription(),
-            request.getType(),
-            aiResult
-        );
-        
-        return ResponseEntity.ok(entity);
+        // The JPA save blocks, so it must not run on the HTTP client's completion threads
+        return aiService.analyzeRiskOpportunityAsync(request.getDescription(), request.getType())
+            .thenApplyAsync(aiResult -> ResponseEntity.ok(riskOpportunityService.saveAnalysis(
+                request.getTitle(),
+                request.getDescription(),
+                request.getType(),
+                aiResult
+            )), applicationTaskExecutor);
+    }
+    
+    @PostMapping("/analyze/batch")
+    public ResponseEntity<BatchAnalysisStatus> analyzeBatch(@RequestBody List<AnalysisRequest> requests) {
+        return ResponseEntity.accepted().body(batchAnalysisService.submit(requests));
+    }
+    
+    @GetMapping("/analyze/batch/{jobId}")
+    public ResponseEntity<BatchAnalysisStatus> getBatchAnalysisStatus(@PathVariable String jobId) {
+        return batchAnalysisService.getStatus(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
     
     @PostMapping("/rag-analysis")
-    public ResponseEntity<String> analyzeWithRAG(@RequestBody String query) {
-        String analysis = aiService.getAIAnalysisWithRAG(query);
-        return ResponseEntity.ok(analysis);
+    public CompletableFuture<ResponseEntity<String>> analyzeWithRAG(@RequestBody String query) {
+        return aiService.getAIAnalysisWithRAGAsync(query).thenApply(ResponseEntity::ok);
+    }
+    
+    /**
+     * Relays the RAG analysis as Server-Sent Events: {@code token} events carry the text as
+     * Gemini generates it, followed by a single {@code done} or {@code error} event.
+     */
+    @PostMapping(value = "/rag-analysis/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRagAnalysis(@RequestBody String query) {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        aiService.streamAIAnalysisWithRAG(query, text -> {
+                try {
+                    emitter.send(SseEmitter.event().name("token").data(text));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            })
+            .whenComplete((analysis, error) -> {
+                try {
+                    if (error == null) {
+                        emitter.send(SseEmitter.event().name("done").data(""));
+                    } else {
+                        emitter.send(SseEmitter.event().name("error").data(error.getMessage()));
+                    }
+                    emitter.complete();
+                } catch (IOException | IllegalStateException e) {
+                    // The client has gone away
+                    emitter.completeWithError(e);
+                }
+            });
+        return emitter;
+    }
+    
+    @PostMapping("/jobs/analyze")
+    public ResponseEntity<AnalysisJobEntity> submitAnalysisJob(
+            @RequestBody AnalysisRequest request,
+            @RequestParam(required = false) PriorityLevel priority,
+            @RequestParam(required = false) String callbackUrl) {
+        return submitJob(() -> analysisJobService.submitAnalysis(request, priority, callbackUrl));
+    }
+    
+    @PostMapping("/jobs/rag-analysis")
+    public ResponseEntity<AnalysisJobEntity> submitRagAnalysisJob(
+            @RequestBody String query,
+            @RequestParam(required = false) PriorityLevel priority,
+            @RequestParam(required = false) String callbackUrl) {
+        return submitJob(() -> analysisJobService.submitRagAnalysis(query, priority, callbackUrl));
+    }
+    
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<AnalysisJobEntity> getAnalysisJob(@PathVariable String jobId) {
+        return analysisJobService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    private ResponseEntity<AnalysisJobEntity> submitJob(Supplier<AnalysisJobEntity> submit) {
+        try {
+            return ResponseEntity.accepted().body(submit.get());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     @PostMapping("/documents")
@@ -67,9 +185,75 @@ public class RiskOpportunityController {
         return ResponseEntity.ok().build();
     }
     
+    /**
+     * Retrieves the most relevant document chunks. Each {@code filter=key:value} restricts the
+     * search to documents with that metadata value (or {@code contentType}); repeated keys
+     * match any of their values.
+     */
+    @GetMapping("/documents/search")
+    public ResponseEntity<List<String>> searchDocuments(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "5") int limit,
+            @RequestParam(name = "filter", required = false) List<String> filters) {
+        MetadataFilter filter;
+        try {
+            filter = MetadataFilter.parse(filters);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(service.findRelevantDocuments(q, limit, filter));
+    }
+    
+    @PostMapping(value = "/documents/bulk", consumes = "application/x-ndjson")
+    public ResponseEntity<BulkIngestionStatus> uploadDocumentsNdjson(InputStream body) {
+        return ResponseEntity.accepted().body(bulkIngestionService.ingestNdjson(body));
+    }
+    
+    @PostMapping(value = "/documents/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BulkIngestionStatus> uploadDocumentFiles(@RequestParam("files") List<MultipartFile> files) {
+        return ResponseEntity.accepted().body(bulkIngestionService.ingestFiles(files));
+    }
+    
+    @GetMapping("/documents/bulk/{jobId}")
+    public ResponseEntity<BulkIngestionStatus> getBulkIngestionStatus(@PathVariable String jobId) {
+        return bulkIngestionService.getStatus(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Paged summaries, newest first, e.g. {@code ?page=0&size=50&type=RISK}; {@code size} is
+     * capped at {@code app.analysis.query.max-page-size}. The full analysis text is served by
+     * {@code GET /{id}}.
+     */
     @GetMapping
-    public ResponseEntity<List<RiskOpportunityEntity>> getAllAnalyses() {
-        return ResponseEntity.ok(riskOpportunityService.findAll());
+    public ResponseEntity<Page<RiskOpportunitySummary>> getAnalysesPage(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) AnalysisType type) {
+        return ResponseEntity.ok(riskOpportunityService.findPage(type, page, size));
+    }
+    
+    @GetMapping("/scroll")
+    public ResponseEntity<KeysetPage<RiskOpportunitySummary>> scrollAnalyses(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(riskOpportunityService.findAfter(afterId, size));
+    }
+    
+    @GetMapping("/top")
+    public ResponseEntity<List<RiskOpportunitySummary>> getTopAnalyses(
+            @RequestParam AnalysisType type,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(riskOpportunityService.findTopSummaries(type, limit));
+    }
+
+    /**
+     * Counts, risk score histograms and top lists for the dashboard, served from memory.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<RiskSummary> getSummary() {
+        return ResponseEntity.ok(riskAggregateService.getSummary());
     }
 
     @GetMapping("/rag-status")
@@ -0,0 +1,51 @@
+package com.agentic.riskai.ro.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "analysis_jobs", indexes = @Index(name = "idx_analysis_jobs_status", columnList = "status, createdAt"))
+@Data
+@NoArgsConstructor
+public class AnalysisJobEntity {
+
+    public enum Kind { ANALYZE, RAG_ANALYSIS }
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    @Id
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    private Kind kind;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    private int priority; // higher runs first
+
+    private String title;
+
+    @Column(length = 4000)
+    private String description; // analysis description or RAG query
+
+    @Enumerated(EnumType.STRING)
+    private AnalysisType type;
+
+    private String callbackUrl;
+
+    private Long resultId; // saved RiskOpportunityEntity for ANALYZE jobs
+
+    @Lob
+    private String result; // analysis text for RAG_ANALYSIS jobs
+
+    @Column(length = 2000)
+    private String error;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
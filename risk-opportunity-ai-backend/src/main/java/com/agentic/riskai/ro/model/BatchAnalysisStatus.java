@@ -0,0 +1,24 @@
+package com.agentic.riskai.ro.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchAnalysisStatus {
+
+    private String jobId;
+    private String status; // RUNNING, COMPLETED or FAILED
+    private int itemsReceived;
+    private long itemsAnalyzed;
+    private long itemsPersisted;
+    private long itemsFailed;
+    private int inFlight;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
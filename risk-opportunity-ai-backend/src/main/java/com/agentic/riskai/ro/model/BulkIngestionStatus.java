@@ -0,0 +1,24 @@
+package com.agentic.riskai.ro.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkIngestionStatus {
+
+    private String jobId;
+    private String status; // RUNNING, COMPLETED or FAILED
+    private long documentsReceived;
+    private long documentsIndexed;
+    private long documentsFailed;
+    private long chunksIndexed;
+    private int queuedDocuments;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
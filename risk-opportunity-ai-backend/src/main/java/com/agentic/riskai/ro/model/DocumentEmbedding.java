@@ -1,18 +1,17 @@
 package com.agentic.riskai.ro.model;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Map;
 
 public class DocumentEmbedding {
 
     private String content;
     private String contentType;
-    private List<Double> embedding;
+    private float[] embedding;
     private Map<String, Object> metadata;
     private LocalDateTime createdAt;
 
-    public DocumentEmbedding(String content, String contentType, List<Double> embedding, Map<String, Object> metadata, LocalDateTime createdAt) {
+    public DocumentEmbedding(String content, String contentType, float[] embedding, Map<String, Object> metadata, LocalDateTime createdAt) {
         this.content = content;
         this.contentType = contentType;
         this.embedding = embedding;
@@ -37,11 +36,11 @@ public class DocumentEmbedding {
         this.contentType = contentType;
     }
 
-    public List<Double> getEmbedding() {
+    public float[] getEmbedding() {
         return embedding;
     }
 
-    public void setEmbedding(List<Double> embedding) {
+    public void setEmbedding(float[] embedding) {
         this.embedding = embedding;
     }
 
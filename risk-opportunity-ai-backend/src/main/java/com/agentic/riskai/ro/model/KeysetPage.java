@@ -0,0 +1,18 @@
+package com.agentic.riskai.ro.model;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. Pass {@code nextAfterId} as {@code afterId} to
+ * get the next page; it is null on the last page.
+ */
+@Data
+@AllArgsConstructor
+public class KeysetPage<T> {
+
+    private List<T> items;
+    private Long nextAfterId;
+}
@@ -4,19 +4,29 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "risk_opportunities")
+@Table(name = "risk_opportunities", indexes = {
+    @Index(name = "idx_risk_opportunities_type_score", columnList = "type, riskScore DESC"),
+    @Index(name = "idx_risk_opportunities_priority_score", columnList = "priority, riskScore DESC"),
+    @Index(name = "idx_risk_opportunities_type_created", columnList = "type, createdAt DESC")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "riskOpportunities")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class RiskOpportunityEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequence ids are allocated in blocks, which lets Hibernate batch the inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "risk_opportunity_seq")
+    @SequenceGenerator(name = "risk_opportunity_seq", sequenceName = "risk_opportunity_seq", allocationSize = 50)
     private Long id;
     
     @Enumerated(EnumType.STRING)
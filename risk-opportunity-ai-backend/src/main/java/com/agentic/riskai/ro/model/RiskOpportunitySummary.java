@@ -0,0 +1,31 @@
+package com.agentic.riskai.ro.model;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * List view of a {@link RiskOpportunityEntity} without the long analysis, mitigation and
+ * exploitation texts. Used as a query projection, so only these columns are selected.
+ */
+@Data
+@AllArgsConstructor
+public class RiskOpportunitySummary {
+
+    private Long id;
+    private AnalysisType type;
+    private String title;
+    private String category;
+    private Double impactScore;
+    private Double probability;
+    private Double riskScore;
+    private PriorityLevel priority;
+    private LocalDateTime createdAt;
+
+    public static RiskOpportunitySummary of(RiskOpportunityEntity entity) {
+        return new RiskOpportunitySummary(entity.getId(), entity.getType(), entity.getTitle(), entity.getCategory(),
+                entity.getImpactScore(), entity.getProbability(), entity.getRiskScore(), entity.getPriority(),
+                entity.getCreatedAt());
+    }
+}
@@ -0,0 +1,27 @@
+package com.agentic.riskai.ro.model;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dashboard aggregates over all stored analyses. {@code riskScoreHistogram} has one bucket
+ * per point of risk score: bucket {@code i} counts scores in {@code [i, i + 1)}, the last
+ * bucket also holds 10.
+ */
+@Data
+@AllArgsConstructor
+public class RiskSummary {
+
+    private long total;
+    private Map<AnalysisType, Long> countByType;
+    private Map<PriorityLevel, Long> countByPriority;
+    private Map<String, Long> countByCategory;
+    private Map<AnalysisType, long[]> riskScoreHistogram;
+    private List<RiskOpportunitySummary> topRisks;
+    private List<RiskOpportunitySummary> topOpportunities;
+    private LocalDateTime updatedAt;
+}
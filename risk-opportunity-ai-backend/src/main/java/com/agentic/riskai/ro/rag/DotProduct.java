@@ -0,0 +1,17 @@
+package com.agentic.riskai.ro.rag;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Similarity kernel. Stored vectors are unit length, so the dot product of a
+ * normalized query with a stored vector is their cosine similarity.
+ */
+public interface DotProduct {
+
+    float dot(float[] a, float[] b, int bOffset, int dimension);
+
+    /**
+     * Dot product against floats read in place from a little-endian buffer, e.g. a mapped segment file.
+     */
+    float dot(float[] a, ByteBuffer b, int bByteOffset, int dimension);
+}
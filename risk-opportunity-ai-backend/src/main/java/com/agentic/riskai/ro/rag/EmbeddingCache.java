@@ -0,0 +1,260 @@
+package com.agentic.riskai.ro.rag;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Embeds text through the {@link EmbeddingProvider}, reusing vectors of text seen before.
+ * Entries are keyed by the SHA-256 of the model id and the text, so a model change never
+ * serves stale vectors.
+ *
+ * <p>The memory tier is a bounded Caffeine cache. Document vectors are also appended to a
+ * per-model file under {@code app.rag.embedding.cache.disk.path}, so re-ingesting unchanged
+ * content after a restart does not run the model again; query vectors stay in memory only.
+ *
+ * <p>Misses are queued and embedded in batches of up to {@code app.rag.embedding.batch-size}.
+ * A caller that finds no batch running embeds the next one itself, including texts other
+ * threads queued meanwhile, so concurrent misses share model calls without waiting on a
+ * timer.
+ */
+@Component
+public class EmbeddingCache implements AutoCloseable {
+
+    private static final long DRAIN_WAIT_MICROS = 200;
+
+    private final EmbeddingProvider provider;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Cache<String, float[]> memory;
+    private final EmbeddingDiskCache disk;
+    private final Counter diskHits;
+    private final Counter diskMisses;
+    private final Counter embedded;
+
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    public EmbeddingCache(EmbeddingProvider provider,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.rag.embedding.cache.enabled:true}") boolean enabled,
+                          @Value("${app.rag.embedding.cache.maximum-size:10000}") long maximumSize,
+                          @Value("${app.rag.embedding.cache.disk.enabled:false}") boolean diskEnabled,
+                          @Value("${app.rag.embedding.cache.disk.path:./data/embeddings}") String diskPath,
+                          @Value("${app.rag.embedding.batch-size:64}") int batchSize) {
+        this.provider = provider;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.memory = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .recordStats()
+            .<String, float[]>build(), "rag.embeddings");
+        try {
+            this.disk = enabled && diskEnabled
+                ? new EmbeddingDiskCache(Paths.get(diskPath), provider.modelId(), provider.dimension())
+                : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open embedding cache at " + diskPath, e);
+        }
+        this.diskHits = meterRegistry.counter("rag.embeddings.disk", "result", "hit");
+        this.diskMisses = meterRegistry.counter("rag.embeddings.disk", "result", "miss");
+        this.embedded = meterRegistry.counter("rag.embeddings.computed");
+    }
+
+    public String modelId() {
+        return provider.modelId();
+    }
+
+    public int dimension() {
+        return provider.dimension();
+    }
+
+    /**
+     * Vectors for document chunks, in order; kept in both tiers. The returned arrays are
+     * shared with the cache and must not be modified.
+     */
+    public List<float[]> embedDocuments(List<? extends CharSequence> texts) {
+        return embed(texts, true);
+    }
+
+    /**
+     * Vector for a search query; kept in memory only. The returned array is shared with the
+     * cache and must not be modified.
+     */
+    public float[] embedQuery(CharSequence text) {
+        return embed(List.of(text), false).get(0);
+    }
+
+    @Override
+    @PreDestroy
+    public void close() throws IOException {
+        if (disk != null) {
+            disk.close();
+        }
+    }
+
+    private List<float[]> embed(List<? extends CharSequence> texts, boolean persistent) {
+        if (!enabled) {
+            embedded.increment(texts.size());
+            return provider.embedAll(texts);
+        }
+        float[][] vectors = new float[texts.size()][];
+        List<CompletableFuture<float[]>> futures = new ArrayList<>(texts.size());
+        Map<String, CompletableFuture<float[]>> misses = new HashMap<>();
+        for (int i = 0; i < texts.size(); i++) {
+            CharSequence text = texts.get(i);
+            byte[] hash = hash(text);
+            String key = HexFormat.of().formatHex(hash);
+            vectors[i] = lookup(key, hash, persistent);
+            if (vectors[i] == null) {
+                // Repeated text within one call is embedded once
+                futures.add(misses.computeIfAbsent(key, k -> enqueue(k, hash, text, persistent)));
+            } else {
+                futures.add(null);
+            }
+        }
+        if (misses.isEmpty()) {
+            return Arrays.asList(vectors);
+        }
+        for (int i = 0; i < vectors.length; i++) {
+            if (vectors[i] == null) {
+                vectors[i] = await(futures.get(i));
+            }
+        }
+        return Arrays.asList(vectors);
+    }
+
+    private float[] lookup(String key, byte[] hash, boolean persistent) {
+        float[] vector = memory.getIfPresent(key);
+        if (vector == null && persistent && disk != null) {
+            vector = disk.get(hash);
+            if (vector != null) {
+                diskHits.increment();
+                memory.put(key, vector);
+            } else {
+                diskMisses.increment();
+            }
+        }
+        return vector;
+    }
+
+    private CompletableFuture<float[]> enqueue(String key, byte[] hash, CharSequence text, boolean persistent) {
+        Pending pending = new Pending(key, hash, text, persistent, new CompletableFuture<>());
+        queue.add(pending);
+        return pending.result();
+    }
+
+    /**
+     * Waits for a queued text. While the queue is idle the caller embeds the next batch
+     * itself; while another thread is embedding it waits briefly for that thread to reach
+     * its text. Nobody works longer than it takes to finish its own texts.
+     */
+    private float[] await(CompletableFuture<float[]> result) {
+        while (!result.isDone()) {
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                try {
+                    embedNextBatch();
+                } finally {
+                    draining.set(false);
+                }
+            } else {
+                try {
+                    result.get(DRAIN_WAIT_MICROS, TimeUnit.MICROSECONDS);
+                } catch (TimeoutException | ExecutionException e) {
+                    // Check again; failures are rethrown below
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(e);
+                }
+            }
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void embedNextBatch() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        Pending next;
+        while (batch.size() < batchSize && (next = queue.poll()) != null) {
+            batch.add(next);
+        }
+        if (!batch.isEmpty()) {
+            embedBatch(batch);
+        }
+    }
+
+    private void embedBatch(List<Pending> batch) {
+        List<CharSequence> texts = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            texts.add(pending.text());
+        }
+        List<float[]> vectors;
+        try {
+            vectors = provider.embedAll(texts);
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+            return;
+        }
+        embedded.increment(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Pending pending = batch.get(i);
+            float[] vector = vectors.get(i);
+            memory.put(pending.key(), vector);
+            if (pending.persistent() && disk != null) {
+                disk.put(pending.hash(), vector);
+            }
+            pending.result().complete(vector);
+        }
+    }
+
+    private byte[] hash(CharSequence text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(provider.modelId().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(StandardCharsets.UTF_8.encode(CharBuffer.wrap(text)));
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record Pending(String key, byte[] hash, CharSequence text, boolean persistent,
+                           CompletableFuture<float[]> result) {
+    }
+}
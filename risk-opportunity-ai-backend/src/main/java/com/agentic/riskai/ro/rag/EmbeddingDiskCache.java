@@ -0,0 +1,139 @@
+package com.agentic.riskai.ro.rag;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Persistent tier of {@link EmbeddingCache}: one append-only file per model holding
+ * fixed-size records of a 32-byte content hash followed by the vector. The hash to record
+ * index map is rebuilt from the file on start; a record cut short by a crash is truncated.
+ */
+@Slf4j
+class EmbeddingDiskCache implements AutoCloseable {
+
+    private static final int MAGIC = 0x454D4243; // "EMBC"
+    private static final int HEADER_SIZE = 8;
+    private static final int LOAD_BATCH = 1024; // records read per call while loading
+    static final int HASH_SIZE = 32;
+
+    private final Path file;
+    private final int dimension;
+    private final int recordSize;
+    private final FileChannel channel;
+    private final Map<String, Integer> records = new HashMap<>();
+
+    EmbeddingDiskCache(Path directory, String modelId, int dimension) throws IOException {
+        this.file = directory.resolve(modelId.replaceAll("[^A-Za-z0-9._-]", "_") + ".emb");
+        this.dimension = dimension;
+        this.recordSize = HASH_SIZE + dimension * Float.BYTES;
+        Files.createDirectories(directory);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        load();
+    }
+
+    synchronized int size() {
+        return records.size();
+    }
+
+    float[] get(byte[] hash) {
+        Integer record;
+        synchronized (this) {
+            record = records.get(HexFormat.of().formatHex(hash));
+        }
+        if (record == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(dimension * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        long position = HEADER_SIZE + (long) record * recordSize + HASH_SIZE;
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    return null;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not read cached embedding from {}: {}", file, e.getMessage());
+            return null;
+        }
+        buffer.flip();
+        float[] vector = new float[dimension];
+        buffer.asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    synchronized void put(byte[] hash, float[] vector) {
+        String key = HexFormat.of().formatHex(hash);
+        if (records.containsKey(key)) {
+            return;
+        }
+        ByteBuffer record = ByteBuffer.allocate(recordSize).order(ByteOrder.LITTLE_ENDIAN);
+        record.put(hash);
+        for (float value : vector) {
+            record.putFloat(value);
+        }
+        record.flip();
+        try {
+            int index = records.size();
+            long position = HEADER_SIZE + (long) index * recordSize;
+            while (record.hasRemaining()) {
+                channel.write(record, position + record.position());
+            }
+            records.put(key, index);
+        } catch (IOException e) {
+            log.warn("Could not write cached embedding to {}: {}", file, e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(MAGIC).putInt(dimension).flip();
+            channel.truncate(0);
+            channel.write(header, 0);
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != dimension) {
+            throw new IOException(file + " is not an embedding cache with " + dimension + " dimensions");
+        }
+        long count = (size - HEADER_SIZE) / recordSize;
+        if (HEADER_SIZE + count * recordSize != size) {
+            // Last append was interrupted
+            channel.truncate(HEADER_SIZE + count * recordSize);
+        }
+        byte[] hash = new byte[HASH_SIZE];
+        ByteBuffer buffer = ByteBuffer.allocate(LOAD_BATCH * recordSize);
+        for (int first = 0; first < count; first += LOAD_BATCH) {
+            int batch = (int) Math.min(LOAD_BATCH, count - first);
+            buffer.clear().limit(batch * recordSize);
+            long position = HEADER_SIZE + (long) first * recordSize;
+            while (buffer.hasRemaining()) {
+                channel.read(buffer, position + buffer.position());
+            }
+            for (int i = 0; i < batch; i++) {
+                buffer.get(i * recordSize, hash);
+                records.put(HexFormat.of().formatHex(hash), first + i);
+            }
+        }
+        log.info("Opened embedding cache {} with {} vectors", file, count);
+    }
+}
@@ -0,0 +1,36 @@
+package com.agentic.riskai.ro.rag;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns text into embedding vectors of {@link #dimension()} floats. Implementations must be
+ * deterministic and thread-safe: the same text always yields the same vector, because stored
+ * document vectors are compared with query vectors computed later.
+ *
+ * <p>Selected with {@code app.rag.embedding.provider}.
+ */
+public interface EmbeddingProvider {
+
+    /**
+     * Identifies the model and its settings. Vectors from providers with different ids are
+     * not comparable.
+     */
+    String modelId();
+
+    int dimension();
+
+    float[] embed(CharSequence text);
+
+    /**
+     * Embeds several texts at once; providers backed by a model should override this to run
+     * them as one batch.
+     */
+    default List<float[]> embedAll(List<? extends CharSequence> texts) {
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        for (CharSequence text : texts) {
+            vectors.add(embed(text));
+        }
+        return vectors;
+    }
+}
@@ -0,0 +1,52 @@
+package com.agentic.riskai.ro.rag;
+
+import com.agentic.riskai.ro.model.DocumentEmbedding;
+
+/**
+ * Holds document vectors in packed primitive storage. Documents are addressed
+ * by a dense id assigned on {@link #add(DocumentEmbedding)}.
+ *
+ * <p>Vectors are normalized to unit length when they are added, so the cosine
+ * similarity with a normalized query is a plain dot product.
+ */
+public interface EmbeddingStore {
+
+    int dimension();
+
+    int size();
+
+    /**
+     * Copies the normalized embedding into the store and returns the id of the new document.
+     */
+    int add(DocumentEmbedding document);
+
+    StoredDocument document(int id);
+
+    /**
+     * Dot product of the stored unit vector with {@code unitQuery}, i.e. their cosine similarity.
+     */
+    float dot(int id, float[] unitQuery);
+
+    /**
+     * Copies the stored unit vector into {@code target}, which must hold {@link #dimension()} floats.
+     */
+    void copyVector(int id, float[] target);
+
+    /**
+     * Point-in-time view of the store. Documents added afterwards are not visible
+     * through it, and taking or scanning it never blocks writers.
+     */
+    Snapshot snapshot();
+
+    interface Snapshot {
+
+        int size();
+
+        int segmentCount();
+
+        /**
+         * Scores every document of one segment against {@code unitQuery} into {@code topK}.
+         */
+        void scan(int segment, float[] unitQuery, TopK topK);
+    }
+}
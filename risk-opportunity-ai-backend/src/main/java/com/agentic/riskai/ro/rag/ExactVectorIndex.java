@@ -0,0 +1,94 @@
+package com.agentic.riskai.ro.rag;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Brute-force scan over every stored vector. Always exact; the default index.
+ *
+ * <p>Each store segment is scanned by a fork/join task that keeps its own top-k;
+ * the partial results are merged on the way back up. Scans run against a store
+ * snapshot, so concurrent inserts neither block nor disturb a running query.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rag.index.type", havingValue = "exact", matchIfMissing = true)
+public class ExactVectorIndex implements VectorIndex {
+
+    private final EmbeddingStore store;
+    private final ForkJoinPool pool;
+
+    public ExactVectorIndex(EmbeddingStore store,
+                            @Value("${app.rag.search.parallelism:0}") int parallelism) {
+        this.store = store;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public void add(int id) {
+        // every stored vector is scanned, nothing to maintain
+    }
+
+    @Override
+    public List<SearchHit> search(float[] query, int k) {
+        EmbeddingStore.Snapshot snapshot = store.snapshot();
+        if (snapshot.size() == 0 || k <= 0) {
+            return Collections.emptyList();
+        }
+        float[] unitQuery = VectorMath.normalize(query);
+        int limit = Math.min(k, snapshot.size());
+
+        TopK topK;
+        if (snapshot.segmentCount() == 1) {
+            topK = new TopK(limit);
+            snapshot.scan(0, unitQuery, topK);
+        } else {
+            topK = pool.invoke(new SegmentSearch(snapshot, unitQuery, limit, 0, snapshot.segmentCount()));
+        }
+        return topK.toSortedHits();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static final class SegmentSearch extends RecursiveTask<TopK> {
+
+        private final EmbeddingStore.Snapshot snapshot;
+        private final float[] unitQuery;
+        private final int k;
+        private final int from;
+        private final int to;
+
+        private SegmentSearch(EmbeddingStore.Snapshot snapshot, float[] unitQuery, int k, int from, int to) {
+            this.snapshot = snapshot;
+            this.unitQuery = unitQuery;
+            this.k = k;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TopK compute() {
+            if (to - from == 1) {
+                TopK topK = new TopK(k);
+                snapshot.scan(from, unitQuery, topK);
+                return topK;
+            }
+            int middle = (from + to) >>> 1;
+            SegmentSearch left = new SegmentSearch(snapshot, unitQuery, k, from, middle);
+            left.fork();
+            TopK merged = new SegmentSearch(snapshot, unitQuery, k, middle, to).compute();
+            merged.addAll(left.join());
+            return merged;
+        }
+    }
+}
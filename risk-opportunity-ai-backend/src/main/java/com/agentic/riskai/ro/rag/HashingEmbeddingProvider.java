@@ -0,0 +1,145 @@
+package com.agentic.riskai.ro.rag;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * CPU-only embedding by feature hashing. Each word, each pair of consecutive words and each
+ * character trigram of a word (with {@code ^}/{@code $} boundary marks) is hashed to one
+ * dimension with a hashed sign, so collisions tend to cancel out. Bucket totals are damped
+ * with {@code log(1 + tf)} and the vector is normalized to unit length.
+ *
+ * <p>Texts that share words score high; trigrams also match inflections such as
+ * "mitigate" and "mitigation". Common English stop words are skipped. There is no
+ * corpus-wide IDF, so a stored vector never changes as more documents are added.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rag.embedding.provider", havingValue = "hashing", matchIfMissing = true)
+public class HashingEmbeddingProvider implements EmbeddingProvider {
+
+    private static final float WORD_WEIGHT = 1f;
+    private static final float BIGRAM_WEIGHT = 0.5f;
+    private static final float TRIGRAM_WEIGHT = 0.25f;
+
+    private static final long WORD_SALT = 0x9E3779B97F4A7C15L;
+    private static final long BIGRAM_SALT = 0xC2B2AE3D27D4EB4FL;
+    private static final long TRIGRAM_SALT = 0x165667B19E3779F9L;
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private static final String[] STOP_WORDS = {
+        "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "have", "in", "is", "it",
+        "its", "of", "on", "or", "that", "the", "this", "to", "was", "were", "will", "with"
+    };
+
+    private final int dimension;
+    private final long[] stopWordHashes;
+
+    public HashingEmbeddingProvider(@Value("${app.rag.embedding-dimension:1536}") int dimension) {
+        if (dimension < 1) {
+            throw new IllegalArgumentException("Embedding dimension must be positive: " + dimension);
+        }
+        this.dimension = dimension;
+        this.stopWordHashes = new long[STOP_WORDS.length];
+        for (int i = 0; i < STOP_WORDS.length; i++) {
+            stopWordHashes[i] = wordHash(STOP_WORDS[i], 0, STOP_WORDS[i].length());
+        }
+        Arrays.sort(stopWordHashes);
+    }
+
+    @Override
+    public String modelId() {
+        return "hashing-ngram-v1/" + dimension;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public float[] embed(CharSequence text) {
+        float[] vector = new float[dimension];
+        long previousWord = 0;
+        boolean hasPrevious = false;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            if (start == i) {
+                break;
+            }
+            long word = wordHash(text, start, i);
+            if (Arrays.binarySearch(stopWordHashes, word) >= 0) {
+                continue;
+            }
+            add(vector, word ^ WORD_SALT, WORD_WEIGHT);
+            if (hasPrevious) {
+                add(vector, (previousWord * FNV_PRIME + word) ^ BIGRAM_SALT, BIGRAM_WEIGHT);
+            }
+            addTrigrams(vector, text, start, i);
+            previousWord = word;
+            hasPrevious = true;
+        }
+        for (int d = 0; d < dimension; d++) {
+            float value = vector[d];
+            vector[d] = Math.copySign((float) Math.log1p(Math.abs(value)), value);
+        }
+        VectorMath.normalizeInto(vector, vector, 0);
+        return vector;
+    }
+
+    private void addTrigrams(float[] vector, CharSequence text, int start, int end) {
+        // Trigrams over "^word$", so short words and word edges get features of their own
+        for (int k = start - 1; k < end - 1; k++) {
+            long hash = FNV_OFFSET;
+            hash = (hash ^ charAt(text, k, start, end)) * FNV_PRIME;
+            hash = (hash ^ charAt(text, k + 1, start, end)) * FNV_PRIME;
+            hash = (hash ^ charAt(text, k + 2, start, end)) * FNV_PRIME;
+            add(vector, hash ^ TRIGRAM_SALT, TRIGRAM_WEIGHT);
+        }
+    }
+
+    private static char charAt(CharSequence text, int index, int start, int end) {
+        if (index < start) {
+            return '^';
+        }
+        return index >= end ? '$' : Character.toLowerCase(text.charAt(index));
+    }
+
+    private void add(float[] vector, long feature, float weight) {
+        long hash = mix(feature);
+        int bucket = (int) Long.remainderUnsigned(hash >>> 1, dimension);
+        vector[bucket] += (hash & 1) == 0 ? weight : -weight;
+    }
+
+    private static long wordHash(CharSequence text, int start, int end) {
+        long hash = FNV_OFFSET;
+        for (int i = start; i < end; i++) {
+            hash = (hash ^ Character.toLowerCase(text.charAt(i))) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Finalizer of MurmurHash3, spreads every input bit over the whole hash.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB93FE53A87EBL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,70 @@
+package com.agentic.riskai.ro.rag;
+
+import java.util.Arrays;
+
+/**
+ * Writable segment backed by a {@code float[]} slab that grows up to the segment capacity.
+ */
+final class HeapSegment extends VectorSegment {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int dimension;
+    private final StoredDocument[] documents;
+    private volatile float[] vectors;
+
+    HeapSegment(int capacity, int dimension) {
+        this.dimension = dimension;
+        this.documents = new StoredDocument[capacity];
+        this.vectors = new float[Math.min(capacity, INITIAL_CAPACITY) * dimension];
+    }
+
+    int capacity() {
+        return documents.length;
+    }
+
+    float[] vectors() {
+        return vectors;
+    }
+
+    /**
+     * Writes a unit vector and its payload. Growing copies the slab; readers holding
+     * the old array still see every document that was visible when they read it.
+     */
+    void set(int local, float[] unitVector, StoredDocument document) {
+        ensureCapacity(local + 1);
+        System.arraycopy(unitVector, 0, vectors, local * dimension, dimension);
+        documents[local] = document;
+    }
+
+    @Override
+    StoredDocument document(int local) {
+        return documents[local];
+    }
+
+    @Override
+    float dot(DotProduct dotProduct, float[] unitQuery, int local) {
+        return dotProduct.dot(unitQuery, vectors, local * dimension, dimension);
+    }
+
+    @Override
+    void copyVector(int local, float[] target) {
+        System.arraycopy(vectors, local * dimension, target, 0, dimension);
+    }
+
+    @Override
+    void scan(DotProduct dotProduct, float[] unitQuery, int base, int count, TopK topK) {
+        float[] slab = vectors;
+        for (int local = 0, offset = 0; local < count; local++, offset += dimension) {
+            topK.offer(base + local, dotProduct.dot(unitQuery, slab, offset, dimension));
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        int capacity = vectors.length / dimension;
+        if (required > capacity) {
+            int grown = Math.min(documents.length, Math.max(required, capacity * 2));
+            vectors = Arrays.copyOf(vectors, grown * dimension);
+        }
+    }
+}
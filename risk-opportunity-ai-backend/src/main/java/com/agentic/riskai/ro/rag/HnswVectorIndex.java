@@ -0,0 +1,301 @@
+package com.agentic.riskai.ro.rag;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hierarchical Navigable Small World graph (Malkov &amp; Yashunin) over cosine similarity,
+ * scored as dot products of the unit vectors held by the store.
+ * Inserts are incremental; searches run concurrently with each other but not with inserts.
+ *
+ * <p>Adjacency is kept as {@code graph[node][level]}, an {@code int[]} whose first slot holds
+ * the neighbour count followed by the neighbour ids.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rag.index.type", havingValue = "hnsw")
+public class HnswVectorIndex implements VectorIndex {
+
+    private final EmbeddingStore store;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final int efSearch;
+    private final double levelMultiplier;
+    private final Random random = new Random(42);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<Visited> visited = ThreadLocal.withInitial(Visited::new);
+
+    private int[][][] graph = new int[64][][];
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswVectorIndex(EmbeddingStore store,
+                           @Value("${app.rag.index.hnsw.m:16}") int m,
+                           @Value("${app.rag.index.hnsw.ef-construction:200}") int efConstruction,
+                           @Value("${app.rag.index.hnsw.ef-search:64}") int efSearch) {
+        if (m < 2) {
+            throw new IllegalArgumentException("HNSW parameter M must be at least 2: " + m);
+        }
+        this.store = store;
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.efSearch = efSearch;
+        this.levelMultiplier = 1 / Math.log(m);
+    }
+
+    @Override
+    public void add(int id) {
+        float[] vector = new float[store.dimension()];
+        store.copyVector(id, vector);
+
+        lock.writeLock().lock();
+        try {
+            insert(id, vector);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<SearchHit> search(float[] query, int k) {
+        if (k <= 0) {
+            return Collections.emptyList();
+        }
+        float[] unitQuery = VectorMath.normalize(query);
+
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0) {
+                return Collections.emptyList();
+            }
+            SearchHit current = new SearchHit(entryPoint, store.dot(entryPoint, unitQuery));
+            for (int level = maxLevel; level > 0; level--) {
+                current = greedyClosest(unitQuery, current, level);
+            }
+            List<SearchHit> results = searchLayer(unitQuery, List.of(current), Math.max(efSearch, k), 0);
+            return results.size() > k ? new ArrayList<>(results.subList(0, k)) : results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insert(int id, float[] vector) {
+        ensureCapacity(id + 1);
+        if (graph[id] != null) {
+            return;
+        }
+        int level = randomLevel();
+        int[][] layers = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            layers[l] = new int[maxConnections(l) + 1];
+        }
+        graph[id] = layers;
+
+        if (entryPoint < 0) {
+            entryPoint = id;
+            maxLevel = level;
+            return;
+        }
+
+        SearchHit current = new SearchHit(entryPoint, store.dot(entryPoint, vector));
+        for (int l = maxLevel; l > level; l--) {
+            current = greedyClosest(vector, current, l);
+        }
+
+        List<SearchHit> entryPoints = List.of(current);
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<SearchHit> candidates = searchLayer(vector, entryPoints, efConstruction, l);
+            int[] neighbours = selectNeighbours(candidates, m);
+            for (int neighbour : neighbours) {
+                connect(id, neighbour, l);
+                connect(neighbour, id, l);
+            }
+            entryPoints = candidates;
+        }
+
+        if (level > maxLevel) {
+            entryPoint = id;
+            maxLevel = level;
+        }
+    }
+
+    private SearchHit greedyClosest(float[] unitQuery, SearchHit start, int level) {
+        SearchHit best = start;
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] neighbours = graph[best.id()][level];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                int candidate = neighbours[i];
+                float score = store.dot(candidate, unitQuery);
+                if (score > best.score()) {
+                    best = new SearchHit(candidate, score);
+                    improved = true;
+                }
+            }
+        }
+        return best;
+    }
+
+    private List<SearchHit> searchLayer(float[] unitQuery, List<SearchHit> entryPoints, int ef, int level) {
+        Visited seen = visited.get();
+        seen.reset(graph.length);
+
+        PriorityQueue<SearchHit> candidates = new PriorityQueue<>(SearchHit.BY_SCORE_DESC);
+        PriorityQueue<SearchHit> results = new PriorityQueue<>(SearchHit.BY_SCORE_ASC);
+        for (SearchHit entry : entryPoints) {
+            if (seen.mark(entry.id())) {
+                candidates.add(entry);
+                results.add(entry);
+                if (results.size() > ef) {
+                    results.poll();
+                }
+            }
+        }
+
+        while (!candidates.isEmpty()) {
+            SearchHit closest = candidates.poll();
+            if (results.size() >= ef && closest.score() < results.peek().score()) {
+                break;
+            }
+            int[] neighbours = graph[closest.id()][level];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                int neighbour = neighbours[i];
+                if (!seen.mark(neighbour)) {
+                    continue;
+                }
+                float score = store.dot(neighbour, unitQuery);
+                if (results.size() < ef || score > results.peek().score()) {
+                    SearchHit hit = new SearchHit(neighbour, score);
+                    candidates.add(hit);
+                    results.add(hit);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+
+        List<SearchHit> sorted = new ArrayList<>(results);
+        sorted.sort(SearchHit.BY_SCORE_DESC);
+        return sorted;
+    }
+
+    /**
+     * Neighbour selection heuristic: a candidate is kept only if it is closer to the base
+     * node than to any neighbour already kept, which preserves links between clusters.
+     * Remaining slots are filled with the best pruned candidates.
+     */
+    private int[] selectNeighbours(List<SearchHit> candidates, int max) {
+        int[] selected = new int[max];
+        int count = 0;
+        List<SearchHit> pruned = new ArrayList<>();
+        float[] scratch = new float[store.dimension()];
+
+        for (SearchHit candidate : candidates) {
+            if (count >= max) {
+                break;
+            }
+            store.copyVector(candidate.id(), scratch);
+            boolean keep = true;
+            for (int i = 0; i < count; i++) {
+                if (store.dot(selected[i], scratch) > candidate.score()) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selected[count++] = candidate.id();
+            } else {
+                pruned.add(candidate);
+            }
+        }
+        for (int i = 0; i < pruned.size() && count < max; i++) {
+            selected[count++] = pruned.get(i).id();
+        }
+        return count == max ? selected : Arrays.copyOf(selected, count);
+    }
+
+    private void connect(int node, int neighbour, int level) {
+        int[] links = graph[node][level];
+        int count = links[0];
+        for (int i = 1; i <= count; i++) {
+            if (links[i] == neighbour) {
+                return;
+            }
+        }
+        if (count < links.length - 1) {
+            links[count + 1] = neighbour;
+            links[0] = count + 1;
+            return;
+        }
+
+        // Over capacity: re-select the best neighbours of this node, including the new one
+        float[] base = new float[store.dimension()];
+        store.copyVector(node, base);
+        List<SearchHit> candidates = new ArrayList<>(count + 1);
+        for (int i = 1; i <= count; i++) {
+            candidates.add(new SearchHit(links[i], store.dot(links[i], base)));
+        }
+        candidates.add(new SearchHit(neighbour, store.dot(neighbour, base)));
+        candidates.sort(SearchHit.BY_SCORE_DESC);
+
+        int[] kept = selectNeighbours(candidates, links.length - 1);
+        System.arraycopy(kept, 0, links, 1, kept.length);
+        links[0] = kept.length;
+    }
+
+    private int maxConnections(int level) {
+        return level == 0 ? maxM0 : m;
+    }
+
+    private int randomLevel() {
+        double uniform = 1.0 - random.nextDouble();
+        return (int) (-Math.log(uniform) * levelMultiplier);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > graph.length) {
+            graph = Arrays.copyOf(graph, Math.max(required, graph.length * 2));
+        }
+    }
+
+    /**
+     * Generation-stamped visited set, reused per thread to avoid clearing on every search.
+     */
+    private static final class Visited {
+        private int[] marks = new int[0];
+        private int generation;
+
+        void reset(int capacity) {
+            if (marks.length < capacity) {
+                marks = new int[capacity];
+                generation = 0;
+            }
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                generation = 1;
+            }
+        }
+
+        boolean mark(int id) {
+            if (marks[id] == generation) {
+                return false;
+            }
+            marks[id] = generation;
+            return true;
+        }
+    }
+}
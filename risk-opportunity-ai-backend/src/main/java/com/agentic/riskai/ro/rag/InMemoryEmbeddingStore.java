@@ -0,0 +1,19 @@
+package com.agentic.riskai.ro.rag;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Heap-only store: every segment is a contiguous {@code float[]} slab. Lost on restart.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rag.store.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryEmbeddingStore extends SegmentedEmbeddingStore {
+
+    public InMemoryEmbeddingStore(@Value("${app.rag.embedding-dimension:1536}") int dimension,
+                                  @Value("${app.rag.store.segment-size:8192}") int segmentSize,
+                                  DotProduct dotProduct) {
+        super(dimension, segmentSize, dotProduct);
+    }
+}
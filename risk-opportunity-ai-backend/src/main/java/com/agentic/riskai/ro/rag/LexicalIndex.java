@@ -0,0 +1,257 @@
+package com.agentic.riskai.ro.rag;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * In-memory inverted index scored with Okapi BM25, kept next to the {@link VectorIndex} and
+ * addressed by the same document ids. Finds exact terms such as supplier names or regulation
+ * numbers that a vector search can rank low.
+ *
+ * <p>Terms are lower-cased runs of letters and digits. Each posting list is a byte array of
+ * variable-length encoded doc id deltas and term frequencies; document lengths are an
+ * {@code int[]} indexed by id. Inserts take a write lock, searches share a read lock.
+ */
+@Component
+public class LexicalIndex {
+
+    private final float k1;
+    private final float b;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<Accumulator> accumulator = ThreadLocal.withInitial(Accumulator::new);
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private int[] lengths = new int[64];
+    private int maxId = -1;
+    private int documentCount;
+    private long totalLength;
+
+    public LexicalIndex(@Value("${app.rag.lexical.k1:1.2}") float k1,
+                        @Value("${app.rag.lexical.b:0.75}") float b) {
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    /**
+     * Indexes the text of an already stored document.
+     */
+    public void add(int id, CharSequence text) {
+        Map<String, Integer> frequencies = termFrequencies(text);
+        int length = 0;
+        for (int tf : frequencies.values()) {
+            length += tf;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (id >= lengths.length) {
+                lengths = Arrays.copyOf(lengths, Math.max(id + 1, lengths.length * 2));
+            }
+            lengths[id] = length;
+            maxId = Math.max(maxId, id);
+            documentCount++;
+            totalLength += length;
+            frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new Postings()).add(id, tf));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code k} documents containing any query term, ordered by descending BM25 score.
+     */
+    public List<SearchHit> search(CharSequence query, int k) {
+        return search(query, k, null);
+    }
+
+    /**
+     * As {@link #search(CharSequence, int)}, skipping documents rejected by {@code allowed}
+     * before they are scored; {@code null} allows all.
+     */
+    public List<SearchHit> search(CharSequence query, int k, IntPredicate allowed) {
+        if (k <= 0) {
+            return Collections.emptyList();
+        }
+        Map<String, Integer> terms = termFrequencies(query);
+
+        lock.readLock().lock();
+        try {
+            if (documentCount == 0 || terms.isEmpty()) {
+                return Collections.emptyList();
+            }
+            Accumulator scores = accumulator.get();
+            scores.reset(maxId + 1);
+            float averageLength = Math.max(1f, (float) totalLength / documentCount);
+            for (String term : terms.keySet()) {
+                Postings list = postings.get(term);
+                if (list != null) {
+                    list.score(idf(list.docFreq), averageLength, allowed, scores);
+                }
+            }
+            if (scores.touched == 0) {
+                return Collections.emptyList();
+            }
+            TopK topK = new TopK(Math.min(k, scores.touched));
+            for (int i = 0; i < scores.touched; i++) {
+                int id = scores.ids[i];
+                topK.offer(id, scores.scores[id]);
+            }
+            return topK.toSortedHits();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private float idf(int docFreq) {
+        return (float) Math.log(1 + (documentCount - docFreq + 0.5) / (docFreq + 0.5));
+    }
+
+    static Map<String, Integer> termFrequencies(CharSequence text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        StringBuilder term = new StringBuilder();
+        int length = text.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                term.append(Character.toLowerCase(c));
+            } else if (!term.isEmpty()) {
+                frequencies.merge(term.toString(), 1, Integer::sum);
+                term.setLength(0);
+            }
+        }
+        return frequencies;
+    }
+
+    /**
+     * Doc id deltas and term frequencies, each as a base-128 varint. Ids normally arrive in
+     * increasing order and are appended; an id that arrives late rebuilds the list.
+     */
+    private final class Postings {
+        private byte[] bytes = new byte[8];
+        private int size;
+        private int docFreq;
+        private int lastId = -1;
+
+        void add(int id, int tf) {
+            if (id > lastId) {
+                writeVarInt(id - lastId);
+                writeVarInt(tf);
+                lastId = id;
+                docFreq++;
+                return;
+            }
+            int[] ids = new int[docFreq + 1];
+            int[] tfs = new int[docFreq + 1];
+            int count = 0;
+            Cursor cursor = new Cursor();
+            for (int n = 0; n < docFreq; n++) {
+                int next = cursor.nextId();
+                if (id == next) {
+                    return; // already indexed
+                }
+                if (id < next && count == n) {
+                    ids[count] = id;
+                    tfs[count++] = tf;
+                }
+                ids[count] = next;
+                tfs[count++] = cursor.readVarInt();
+            }
+            size = 0;
+            docFreq = 0;
+            lastId = -1;
+            for (int n = 0; n < count; n++) {
+                add(ids[n], tfs[n]);
+            }
+        }
+
+        void score(float idf, float averageLength, IntPredicate allowed, Accumulator scores) {
+            Cursor cursor = new Cursor();
+            for (int n = 0; n < docFreq; n++) {
+                int id = cursor.nextId();
+                int tf = cursor.readVarInt();
+                if (allowed != null && !allowed.test(id)) {
+                    continue;
+                }
+                float norm = k1 * (1 - b + b * lengths[id] / averageLength);
+                scores.add(id, idf * tf * (k1 + 1) / (tf + norm));
+            }
+        }
+
+        private void writeVarInt(int value) {
+            if (size + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private final class Cursor {
+            private int position;
+            private int id = -1;
+
+            int nextId() {
+                id += readVarInt();
+                return id;
+            }
+
+            int readVarInt() {
+                int value = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte next = bytes[position++];
+                    value |= (next & 0x7F) << shift;
+                    if (next >= 0) {
+                        return value;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Per-thread score array reused across queries; only the ids touched by a query are reset.
+     */
+    private static final class Accumulator {
+        private float[] scores = new float[0];
+        private int[] ids = new int[0];
+        private int touched;
+
+        void reset(int capacity) {
+            for (int i = 0; i < touched; i++) {
+                scores[ids[i]] = 0;
+            }
+            touched = 0;
+            if (scores.length < capacity) {
+                scores = new float[capacity];
+                ids = new int[capacity];
+            }
+        }
+
+        void add(int id, float score) {
+            if (scores[id] == 0) {
+                ids[touched++] = id;
+            }
+            scores[id] += score;
+        }
+    }
+}
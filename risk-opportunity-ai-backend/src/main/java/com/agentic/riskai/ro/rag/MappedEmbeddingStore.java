@@ -0,0 +1,295 @@
+package com.agentic.riskai.ro.rag;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Persistent store under {@code app.rag.store.path}. Full segments are sealed into
+ * {@code segment-NNNNN.seg} files and memory-mapped, so they are searched straight from
+ * the page cache and a restart only has to map them. The tail segment lives on the heap
+ * and every insert is first appended to its {@code segment-NNNNN.log}.
+ *
+ * <p>Segment files and logs record the {@link EmbeddingProvider#modelId()} they were written
+ * with; a store written by another model is refused on open rather than searched with
+ * incomparable vectors.
+ *
+ * <p>{@link #compact()} folds the append log into a segment file so the next start does
+ * not replay it. Log records carry their local id, so records that are already part of
+ * a segment file are skipped if a crash left both behind.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.rag.store.type", havingValue = "mapped")
+public class MappedEmbeddingStore extends SegmentedEmbeddingStore {
+
+    private static final int LOG_MAGIC = 0x5241474C; // "RAGL"
+    private static final int LOG_VERSION = 2; // version 1 had no version field and no model id
+    private static final int LOG_FIXED_HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private final Path directory;
+    private final String modelId;
+    private final boolean syncWrites;
+    private final StoredDocumentCodec codec = new StoredDocumentCodec();
+
+    private FileChannel logChannel;
+    private int logSegment = -1;
+    private int uncompactedRecords;
+
+    public MappedEmbeddingStore(@Value("${app.rag.embedding-dimension:1536}") int dimension,
+                                @Value("${app.rag.store.segment-size:8192}") int segmentSize,
+                                @Value("${app.rag.store.path:./data/rag}") String path,
+                                @Value("${app.rag.store.sync-writes:false}") boolean syncWrites,
+                                EmbeddingProvider embeddingProvider,
+                                DotProduct dotProduct) {
+        super(dimension, segmentSize, dotProduct);
+        this.directory = Paths.get(path);
+        this.modelId = embeddingProvider.modelId();
+        this.syncWrites = syncWrites;
+        try {
+            load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open RAG store at " + directory.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Writes the tail segment to its segment file and drops its append log.
+     */
+    public void compact() {
+        synchronized (writeLock) {
+            int tail = size() % segmentSize;
+            if (uncompactedRecords == 0 || tail == 0) {
+                return;
+            }
+            int index = size() / segmentSize;
+            try {
+                MappedSegment.write(segmentFile(index), (HeapSegment) segment(index), tail, dimension, modelId, codec);
+                closeLog();
+                Files.deleteIfExists(logFile(index));
+                uncompactedRecords = 0;
+                log.info("Compacted {} documents of segment {} into {}", tail, index, segmentFile(index));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not compact RAG store segment " + index, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        compact();
+        synchronized (writeLock) {
+            try {
+                closeLog();
+            } catch (IOException e) {
+                log.warn("Could not close RAG append log: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    protected void beforeAppend(int id, float[] unitVector, StoredDocument document) {
+        byte[] payload = codec.encode(document);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + dimension * Float.BYTES + payload.length)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        record.putInt(id % segmentSize).putInt(payload.length);
+        for (float value : unitVector) {
+            record.putFloat(value);
+        }
+        record.put(payload).flip();
+        try {
+            FileChannel channel = logChannel(id / segmentSize);
+            MappedSegment.writeFully(channel, record);
+            if (syncWrites) {
+                channel.force(false);
+            }
+            uncompactedRecords++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append document to RAG log", e);
+        }
+    }
+
+    @Override
+    protected void afterAppend(int id) {
+        if ((id + 1) % segmentSize == 0) {
+            try {
+                seal(id / segmentSize);
+            } catch (IOException e) {
+                // The append log still holds the segment, the next start retries sealing it
+                log.error("Could not seal RAG segment {}", id / segmentSize, e);
+            }
+        }
+    }
+
+    private void load() throws IOException {
+        Files.createDirectories(directory);
+        synchronized (writeLock) {
+            for (int index = 0; ; index++) {
+                Path segmentFile = segmentFile(index);
+                Path logFile = logFile(index);
+                boolean hasSegment = Files.exists(segmentFile);
+                boolean hasLog = Files.exists(logFile);
+                if (!hasSegment && !hasLog) {
+                    break;
+                }
+
+                int loaded = 0;
+                if (hasSegment) {
+                    MappedSegment mapped = MappedSegment.open(segmentFile, dimension, modelId, codec);
+                    if (mapped.count() > segmentSize) {
+                        throw new IOException("Segment " + segmentFile + " holds " + mapped.count()
+                            + " documents but app.rag.store.segment-size is " + segmentSize);
+                    }
+                    if (mapped.count() == segmentSize) {
+                        installSegment(index, mapped);
+                        publish(segmentSize);
+                        Files.deleteIfExists(logFile);
+                        continue;
+                    }
+                    // Compacted tail: copy it to the heap so it can keep growing
+                    float[] vector = new float[dimension];
+                    for (int local = 0; local < mapped.count(); local++) {
+                        mapped.copyVector(local, vector);
+                        append(vector, mapped.document(local));
+                    }
+                    loaded = mapped.count();
+                }
+                if (hasLog) {
+                    loaded = replayLog(logFile, loaded);
+                }
+                if (loaded < segmentSize) {
+                    break;
+                }
+                seal(index);
+            }
+        }
+        if (size() > 0) {
+            log.info("Opened RAG store at {} with {} documents", directory.toAbsolutePath(), size());
+        }
+    }
+
+    private int replayLog(Path logFile, int loaded) throws IOException {
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read the whole log
+            }
+            buffer.flip();
+            int position = checkLogHeader(buffer, logFile);
+
+            int vectorBytes = dimension * Float.BYTES;
+            float[] vector = new float[dimension];
+            while (buffer.limit() - position >= RECORD_HEADER_SIZE) {
+                int local = buffer.getInt(position);
+                int payloadLength = buffer.getInt(position + 4);
+                int recordSize = RECORD_HEADER_SIZE + vectorBytes + payloadLength;
+                if (payloadLength < 0 || buffer.limit() - position < recordSize) {
+                    break;
+                }
+                if (local == loaded) {
+                    int vectorOffset = position + RECORD_HEADER_SIZE;
+                    for (int i = 0; i < dimension; i++) {
+                        vector[i] = buffer.getFloat(vectorOffset + i * Float.BYTES);
+                    }
+                    byte[] payload = new byte[payloadLength];
+                    buffer.get(vectorOffset + vectorBytes, payload);
+                    append(vector, codec.decode(payload));
+                    loaded++;
+                    uncompactedRecords++;
+                }
+                position += recordSize;
+            }
+            if (position < buffer.limit()) {
+                log.warn("Dropping {} bytes of incomplete records at the end of {}", buffer.limit() - position, logFile);
+                channel.truncate(position);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * @return the offset of the first record
+     */
+    private int checkLogHeader(ByteBuffer buffer, Path logFile) throws IOException {
+        if (buffer.limit() < LOG_FIXED_HEADER_SIZE || buffer.getInt(0) != LOG_MAGIC) {
+            throw new IOException("Not a RAG append log: " + logFile);
+        }
+        if (buffer.getInt(4) != LOG_VERSION) {
+            throw new IOException("Unsupported append log format in " + logFile
+                + ", its embedding model is unknown; re-ingest the documents into an empty app.rag.store.path");
+        }
+        if (buffer.getInt(8) != dimension) {
+            throw new IOException("Append log " + logFile + " has dimension " + buffer.getInt(8) + ", expected " + dimension);
+        }
+        int modelIdLength = buffer.getInt(12);
+        if (modelIdLength < 0 || modelIdLength > buffer.limit() - LOG_FIXED_HEADER_SIZE) {
+            throw new IOException("Corrupt append log header in " + logFile);
+        }
+        byte[] storedModelId = new byte[modelIdLength];
+        buffer.get(LOG_FIXED_HEADER_SIZE, storedModelId);
+        MappedSegment.checkModelId(new String(storedModelId, StandardCharsets.UTF_8), modelId, logFile);
+        return LOG_FIXED_HEADER_SIZE + modelIdLength;
+    }
+
+    private void seal(int index) throws IOException {
+        Path segmentFile = segmentFile(index);
+        MappedSegment.write(segmentFile, (HeapSegment) segment(index), segmentSize, dimension, modelId, codec);
+        installSegment(index, MappedSegment.open(segmentFile, dimension, modelId, codec));
+        closeLog();
+        Files.deleteIfExists(logFile(index));
+        uncompactedRecords = 0;
+        log.info("Sealed RAG segment {} into {}", index, segmentFile);
+    }
+
+    private FileChannel logChannel(int index) throws IOException {
+        if (logChannel != null && logSegment == index) {
+            return logChannel;
+        }
+        closeLog();
+        Path logFile = logFile(index);
+        boolean created = !Files.exists(logFile);
+        FileChannel channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND);
+        if (created) {
+            byte[] modelIdBytes = modelId.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer header = ByteBuffer.allocate(LOG_FIXED_HEADER_SIZE + modelIdBytes.length).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(LOG_MAGIC).putInt(LOG_VERSION).putInt(dimension).putInt(modelIdBytes.length)
+                .put(modelIdBytes).flip();
+            MappedSegment.writeFully(channel, header);
+        }
+        logChannel = channel;
+        logSegment = index;
+        return channel;
+    }
+
+    private void closeLog() throws IOException {
+        if (logChannel != null) {
+            logChannel.close();
+            logChannel = null;
+            logSegment = -1;
+        }
+    }
+
+    private Path segmentFile(int index) {
+        return directory.resolve(String.format("segment-%05d.seg", index));
+    }
+
+    private Path logFile(int index) {
+        return directory.resolve(String.format("segment-%05d.log", index));
+    }
+}
@@ -0,0 +1,183 @@
+package com.agentic.riskai.ro.rag;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only segment memory-mapped from a segment file. Vectors are scored in place
+ * from the mapping; payloads are decoded on access.
+ *
+ * <p>File layout, little-endian:
+ * <pre>
+ * int magic, int version, int dimension, int count
+ * int length, byte[length]  embedding model id, UTF-8, zero-padded to a multiple of 4
+ * float[count * dimension]  unit vectors
+ * int[count + 1]            absolute payload offsets
+ * byte[]                    JSON payloads
+ * </pre>
+ */
+final class MappedSegment extends VectorSegment {
+
+    private static final int MAGIC = 0x52414753; // "RAGS"
+    private static final int VERSION = 2; // version 1 did not record the model id
+    private static final int FIXED_HEADER_SIZE = 20;
+
+    private final ByteBuffer buffer;
+    private final int dimension;
+    private final int count;
+    private final int vectorStart;
+    private final int offsetTable;
+    private final StoredDocumentCodec codec;
+
+    private MappedSegment(ByteBuffer buffer, int dimension, int count, int vectorStart, StoredDocumentCodec codec) {
+        this.buffer = buffer;
+        this.dimension = dimension;
+        this.count = count;
+        this.vectorStart = vectorStart;
+        this.offsetTable = vectorStart + count * dimension * Float.BYTES;
+        this.codec = codec;
+    }
+
+    /**
+     * @throws IOException if the file is not a segment, or holds vectors of another dimension or
+     * embedding model
+     */
+    static MappedSegment open(Path file, int dimension, String modelId, StoredDocumentCodec codec) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (buffer.limit() < FIXED_HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a RAG segment file: " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported segment version " + buffer.getInt(4) + " in " + file
+                + ", its embedding model is unknown; re-ingest the documents into an empty app.rag.store.path");
+        }
+        if (buffer.getInt(8) != dimension) {
+            throw new IOException("Segment " + file + " has dimension " + buffer.getInt(8) + ", expected " + dimension);
+        }
+        int modelIdLength = buffer.getInt(16);
+        if (modelIdLength < 0 || modelIdLength > buffer.limit() - FIXED_HEADER_SIZE) {
+            throw new IOException("Corrupt segment header in " + file);
+        }
+        byte[] storedModelId = new byte[modelIdLength];
+        buffer.get(FIXED_HEADER_SIZE, storedModelId);
+        checkModelId(new String(storedModelId, StandardCharsets.UTF_8), modelId, file);
+        return new MappedSegment(buffer, dimension, buffer.getInt(12), headerSize(modelIdLength), codec);
+    }
+
+    /**
+     * Vectors of different embedding models are not comparable, so a store written with one
+     * model must not be searched with another.
+     */
+    static void checkModelId(String stored, String expected, Path file) throws IOException {
+        if (!stored.equals(expected)) {
+            throw new IOException(file + " holds embeddings of model " + stored + " but the configured provider is "
+                + expected + "; re-ingest the documents into an empty app.rag.store.path");
+        }
+    }
+
+    private static int headerSize(int modelIdLength) {
+        return FIXED_HEADER_SIZE + ((modelIdLength + 3) & ~3);
+    }
+
+    /**
+     * Writes the first {@code count} documents of a heap segment to {@code file}. The file is
+     * written next to the target and moved into place, so readers never see a partial file.
+     */
+    static void write(Path file, HeapSegment segment, int count, int dimension, String modelId,
+                      StoredDocumentCodec codec) throws IOException {
+        byte[] modelIdBytes = modelId.getBytes(StandardCharsets.UTF_8);
+        int headerSize = headerSize(modelIdBytes.length);
+        byte[][] payloads = new byte[count][];
+        long payloadBytes = 0;
+        for (int local = 0; local < count; local++) {
+            payloads[local] = codec.encode(segment.document(local));
+            payloadBytes += payloads[local].length;
+        }
+        int vectorBytes = count * dimension * Float.BYTES;
+        long payloadStart = (long) headerSize + vectorBytes + (long) (count + 1) * Integer.BYTES;
+        if (payloadStart + payloadBytes > Integer.MAX_VALUE) {
+            throw new IOException("Segment too large to map: " + (payloadStart + payloadBytes) + " bytes");
+        }
+
+        ByteBuffer vectors = ByteBuffer.allocate(headerSize + vectorBytes).order(ByteOrder.LITTLE_ENDIAN);
+        vectors.putInt(MAGIC).putInt(VERSION).putInt(dimension).putInt(count)
+            .putInt(modelIdBytes.length).put(modelIdBytes).position(headerSize);
+        vectors.asFloatBuffer().put(segment.vectors(), 0, count * dimension);
+        vectors.position(0);
+
+        ByteBuffer offsets = ByteBuffer.allocate((count + 1) * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        int offset = (int) payloadStart;
+        for (byte[] payload : payloads) {
+            offsets.putInt(offset);
+            offset += payload.length;
+        }
+        offsets.putInt(offset);
+        offsets.flip();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, vectors);
+            writeFully(channel, offsets);
+            for (byte[] payload : payloads) {
+                writeFully(channel, ByteBuffer.wrap(payload));
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    int count() {
+        return count;
+    }
+
+    @Override
+    StoredDocument document(int local) {
+        int start = buffer.getInt(offsetTable + local * Integer.BYTES);
+        int end = buffer.getInt(offsetTable + (local + 1) * Integer.BYTES);
+        byte[] payload = new byte[end - start];
+        buffer.get(start, payload);
+        return codec.decode(payload);
+    }
+
+    @Override
+    float dot(DotProduct dotProduct, float[] unitQuery, int local) {
+        return dotProduct.dot(unitQuery, buffer, vectorOffset(local), dimension);
+    }
+
+    @Override
+    void copyVector(int local, float[] target) {
+        int offset = vectorOffset(local);
+        for (int i = 0; i < dimension; i++) {
+            target[i] = buffer.getFloat(offset + i * Float.BYTES);
+        }
+    }
+
+    @Override
+    void scan(DotProduct dotProduct, float[] unitQuery, int base, int count, TopK topK) {
+        int stride = dimension * Float.BYTES;
+        for (int local = 0, offset = vectorStart; local < count; local++, offset += stride) {
+            topK.offer(base + local, dotProduct.dot(unitQuery, buffer, offset, dimension));
+        }
+    }
+
+    private int vectorOffset(int local) {
+        return vectorStart + local * dimension * Float.BYTES;
+    }
+}
@@ -0,0 +1,46 @@
+package com.agentic.riskai.ro.rag;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Restricts retrieval to documents whose metadata matches: every key must match, and a key
+ * matches when the document has any of the listed values. {@code contentType} is matched
+ * like a metadata key.
+ */
+public record MetadataFilter(Map<String, Set<String>> conditions) {
+
+    public static final MetadataFilter NONE = new MetadataFilter(Collections.emptyMap());
+
+    public MetadataFilter {
+        conditions = Collections.unmodifiableMap(new LinkedHashMap<>(conditions));
+    }
+
+    /**
+     * Parses {@code key:value} expressions, e.g. {@code project:apollo}. Repeating a key
+     * accepts any of its values.
+     */
+    public static MetadataFilter parse(Collection<String> expressions) {
+        if (expressions == null || expressions.isEmpty()) {
+            return NONE;
+        }
+        Map<String, Set<String>> conditions = new LinkedHashMap<>();
+        for (String expression : expressions) {
+            int separator = expression.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Filter must look like key:value: " + expression);
+            }
+            conditions.computeIfAbsent(expression.substring(0, separator).trim(), k -> new LinkedHashSet<>())
+                .add(expression.substring(separator + 1).trim());
+        }
+        return new MetadataFilter(conditions);
+    }
+
+    public boolean isEmpty() {
+        return conditions.isEmpty();
+    }
+}
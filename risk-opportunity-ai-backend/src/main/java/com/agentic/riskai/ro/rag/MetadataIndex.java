@@ -0,0 +1,79 @@
+package com.agentic.riskai.ro.rag;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitmap of document ids per metadata key and value, so a {@link MetadataFilter}
+ * resolves to the matching ids with a few bitmap unions and intersections before anything
+ * is scored.
+ *
+ * <p>Values are indexed by their string form; each element of a collection value is indexed
+ * on its own. Maps and other nested structures are not indexed.
+ */
+@Component
+public class MetadataIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<String, RoaringBitmap>> bitmaps = new HashMap<>();
+
+    public void add(int id, String key, Object value) {
+        if (key == null || value == null || value instanceof Map) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Map<String, RoaringBitmap> values = bitmaps.computeIfAbsent(key, k -> new HashMap<>());
+            if (value instanceof Collection<?> collection) {
+                for (Object element : collection) {
+                    if (element != null && !(element instanceof Map)) {
+                        values.computeIfAbsent(element.toString(), v -> new RoaringBitmap()).add(id);
+                    }
+                }
+            } else {
+                values.computeIfAbsent(value.toString(), v -> new RoaringBitmap()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the documents matching {@code filter}, as a new bitmap the caller owns.
+     * Must not be called with an empty filter, which matches everything.
+     */
+    public RoaringBitmap matching(MetadataFilter filter) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = null;
+            for (Map.Entry<String, Set<String>> condition : filter.conditions().entrySet()) {
+                RoaringBitmap matches = new RoaringBitmap();
+                Map<String, RoaringBitmap> values = bitmaps.getOrDefault(condition.getKey(), Map.of());
+                for (String value : condition.getValue()) {
+                    RoaringBitmap ids = values.get(value);
+                    if (ids != null) {
+                        matches.or(ids);
+                    }
+                }
+                if (result == null) {
+                    result = matches;
+                } else {
+                    result.and(matches);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result == null ? new RoaringBitmap() : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.agentic.riskai.ro.rag;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maximal marginal relevance (Carbonell &amp; Goldstein): picks, one at a time, the candidate
+ * maximising {@code lambda * relevance - (1 - lambda) * similarity to the closest pick so far},
+ * so near-duplicate chunks are passed over in favour of ones that add something new.
+ *
+ * <p>Relevance is the cosine similarity to the query. With {@code app.rag.rerank.lexical-weight}
+ * above zero it is blended with the share of distinct query terms the chunk contains, which
+ * rewards exact keyword matches. Scores live in primitive arrays over the candidate set, and
+ * each pick updates every remaining candidate's closest-pick similarity once, so a rerank
+ * costs {@code k * candidates} dot products.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rag.rerank.type", havingValue = "mmr", matchIfMissing = true)
+public class MmrReranker implements Reranker {
+
+    private final EmbeddingStore store;
+    private final DotProduct dotProduct;
+    private final float lambda;
+    private final float lexicalWeight;
+    private final int candidates;
+
+    public MmrReranker(EmbeddingStore store, DotProduct dotProduct,
+                       @Value("${app.rag.rerank.lambda:0.7}") float lambda,
+                       @Value("${app.rag.rerank.lexical-weight:0}") float lexicalWeight,
+                       @Value("${app.rag.rerank.candidates:20}") int candidates) {
+        if (lambda < 0 || lambda > 1) {
+            throw new IllegalArgumentException("MMR lambda must be in [0, 1]: " + lambda);
+        }
+        if (lexicalWeight < 0 || lexicalWeight > 1) {
+            throw new IllegalArgumentException("Lexical weight must be in [0, 1]: " + lexicalWeight);
+        }
+        this.store = store;
+        this.dotProduct = dotProduct;
+        this.lambda = lambda;
+        this.lexicalWeight = lexicalWeight;
+        this.candidates = candidates;
+    }
+
+    @Override
+    public int candidates(int k) {
+        return Math.max(k, candidates);
+    }
+
+    @Override
+    public List<SearchHit> rerank(CharSequence query, float[] queryEmbedding, List<SearchHit> hits, int k) {
+        int n = hits.size();
+        if (n == 0 || k <= 0) {
+            return Collections.emptyList();
+        }
+        int dimension = store.dimension();
+        float[] unitQuery = VectorMath.normalize(queryEmbedding);
+        float[][] vectors = new float[n][dimension];
+        float[] relevance = new float[n];
+        float[] closest = new float[n];
+        boolean[] picked = new boolean[n];
+        Map<String, Integer> queryTerms = lexicalWeight > 0 ? LexicalIndex.termFrequencies(query) : Map.of();
+
+        for (int i = 0; i < n; i++) {
+            int id = hits.get(i).id();
+            store.copyVector(id, vectors[i]);
+            relevance[i] = dotProduct.dot(unitQuery, vectors[i], 0, dimension);
+            if (!queryTerms.isEmpty()) {
+                relevance[i] = (1 - lexicalWeight) * relevance[i]
+                    + lexicalWeight * termCoverage(queryTerms, store.document(id).content());
+            }
+            closest[i] = Float.NEGATIVE_INFINITY;
+        }
+
+        int limit = Math.min(k, n);
+        List<SearchHit> reranked = new ArrayList<>(limit);
+        for (int round = 0; round < limit; round++) {
+            int best = -1;
+            float bestScore = Float.NEGATIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                if (picked[i]) {
+                    continue;
+                }
+                float redundancy = round == 0 ? 0 : closest[i];
+                float score = lambda * relevance[i] - (1 - lambda) * redundancy;
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = i;
+                }
+            }
+            picked[best] = true;
+            reranked.add(new SearchHit(hits.get(best).id(), bestScore));
+            for (int i = 0; i < n; i++) {
+                if (!picked[i]) {
+                    closest[i] = Math.max(closest[i], dotProduct.dot(vectors[best], vectors[i], 0, dimension));
+                }
+            }
+        }
+        return reranked;
+    }
+
+    private static float termCoverage(Map<String, Integer> queryTerms, CharSequence text) {
+        Map<String, Integer> terms = LexicalIndex.termFrequencies(text);
+        int matched = 0;
+        for (String term : queryTerms.keySet()) {
+            if (terms.containsKey(term)) {
+                matched++;
+            }
+        }
+        return (float) matched / queryTerms.size();
+    }
+}
@@ -0,0 +1,24 @@
+package com.agentic.riskai.ro.rag;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Keeps the retrieval order.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rag.rerank.type", havingValue = "none")
+public class PassThroughReranker implements Reranker {
+
+    @Override
+    public int candidates(int k) {
+        return k;
+    }
+
+    @Override
+    public List<SearchHit> rerank(CharSequence query, float[] queryEmbedding, List<SearchHit> candidates, int k) {
+        return candidates.size() <= k ? candidates : candidates.subList(0, k);
+    }
+}
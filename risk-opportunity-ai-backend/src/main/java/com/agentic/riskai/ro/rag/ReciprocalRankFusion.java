@@ -0,0 +1,34 @@
+package com.agentic.riskai.ro.rag;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges rankings by reciprocal rank fusion: a document scores {@code 1 / (k + rank)} in
+ * every ranking that contains it, rank counted from 1. Only ranks matter, so BM25 and cosine
+ * scores need no common scale.
+ */
+public final class ReciprocalRankFusion {
+
+    private ReciprocalRankFusion() {
+    }
+
+    /**
+     * Returns up to {@code limit} hits ordered by descending fused score.
+     */
+    public static List<SearchHit> fuse(int k, int limit, List<List<SearchHit>> rankings) {
+        Map<Integer, Float> fused = new HashMap<>();
+        for (List<SearchHit> ranking : rankings) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                fused.merge(ranking.get(rank).id(), 1f / (k + rank + 1), Float::sum);
+            }
+        }
+        if (fused.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        TopK topK = new TopK(Math.min(limit, fused.size()));
+        fused.forEach(topK::offer);
+        return topK.toSortedHits();
+    }
+}
@@ -0,0 +1,20 @@
+package com.agentic.riskai.ro.rag;
+
+import java.util.List;
+
+/**
+ * Reorders retrieved candidates before they are used, e.g. to drop near-duplicates.
+ * Selected with {@code app.rag.rerank.type} ({@code mmr} or {@code none}).
+ */
+public interface Reranker {
+
+    /**
+     * Number of candidates to retrieve so that {@code k} can be chosen from them.
+     */
+    int candidates(int k);
+
+    /**
+     * Returns up to {@code k} of {@code candidates}, best first.
+     */
+    List<SearchHit> rerank(CharSequence query, float[] queryEmbedding, List<SearchHit> candidates, int k);
+}
@@ -0,0 +1,47 @@
+package com.agentic.riskai.ro.rag;
+
+import java.nio.ByteBuffer;
+
+public final class ScalarDotProduct implements DotProduct {
+
+    @Override
+    public float dot(float[] a, float[] b, int bOffset, int dimension) {
+        // Four independent accumulators let the JIT keep several multiply-adds in flight
+        float s0 = 0f;
+        float s1 = 0f;
+        float s2 = 0f;
+        float s3 = 0f;
+        int i = 0;
+        int bound = dimension & ~3;
+        for (; i < bound; i += 4) {
+            s0 += a[i] * b[bOffset + i];
+            s1 += a[i + 1] * b[bOffset + i + 1];
+            s2 += a[i + 2] * b[bOffset + i + 2];
+            s3 += a[i + 3] * b[bOffset + i + 3];
+        }
+        for (; i < dimension; i++) {
+            s0 += a[i] * b[bOffset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public float dot(float[] a, ByteBuffer b, int bByteOffset, int dimension) {
+        float s0 = 0f;
+        float s1 = 0f;
+        float s2 = 0f;
+        float s3 = 0f;
+        int i = 0;
+        int bound = dimension & ~3;
+        for (int offset = bByteOffset; i < bound; i += 4, offset += 16) {
+            s0 += a[i] * b.getFloat(offset);
+            s1 += a[i + 1] * b.getFloat(offset + 4);
+            s2 += a[i + 2] * b.getFloat(offset + 8);
+            s3 += a[i + 3] * b.getFloat(offset + 12);
+        }
+        for (; i < dimension; i++) {
+            s0 += a[i] * b.getFloat(bByteOffset + (i << 2));
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+}
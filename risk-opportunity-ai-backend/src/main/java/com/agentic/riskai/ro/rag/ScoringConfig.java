@@ -0,0 +1,41 @@
+package com.agentic.riskai.ro.rag;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Configuration
+public class ScoringConfig {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    // Loaded by name: the class is only compiled by the simd Maven profile
+    private static final String SIMD_KERNEL = "com.agentic.riskai.ro.rag.SimdDotProduct";
+
+    @Bean
+    public DotProduct dotProduct(@Value("${app.rag.scoring.simd:false}") boolean simd) {
+        if (!simd) {
+            return new ScalarDotProduct();
+        }
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            log.warn("SIMD scoring requested but {} is not available, start the JVM with --add-modules {}. Using scalar kernel.",
+                VECTOR_MODULE, VECTOR_MODULE);
+            return new ScalarDotProduct();
+        }
+        try {
+            DotProduct kernel = (DotProduct) Class.forName(SIMD_KERNEL)
+                .getDeclaredConstructor()
+                .newInstance();
+            log.info("Using {} dot product kernel", VECTOR_MODULE);
+            return kernel;
+        } catch (ClassNotFoundException e) {
+            log.warn("SIMD scoring requested but this build has no SIMD kernel, build with -Psimd. Using scalar kernel.");
+            return new ScalarDotProduct();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn("Could not load SIMD dot product kernel, using scalar kernel: {}", e.toString());
+            return new ScalarDotProduct();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.agentic.riskai.ro.rag;
+
+import java.util.Comparator;
+
+public record SearchHit(int id, float score) {
+
+    public static final Comparator<SearchHit> BY_SCORE_DESC = (a, b) -> Float.compare(b.score, a.score);
+    public static final Comparator<SearchHit> BY_SCORE_ASC = (a, b) -> Float.compare(a.score, b.score);
+}
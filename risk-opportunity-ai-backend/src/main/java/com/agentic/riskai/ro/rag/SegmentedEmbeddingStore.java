@@ -0,0 +1,187 @@
+package com.agentic.riskai.ro.rag;
+
+import com.agentic.riskai.ro.model.DocumentEmbedding;
+
+import java.util.Arrays;
+
+/**
+ * Keeps vectors in fixed-size segments; global id {@code i} lives in segment
+ * {@code i >>> shift} at local id {@code i & mask}. Vectors are normalized once on insert.
+ *
+ * <p>Writers are serialized; readers take no lock. A document becomes visible when the
+ * volatile {@code size} is bumped after its vector and payload are written, so a reader
+ * that reads {@code size} first sees a consistent prefix of the store.
+ */
+abstract class SegmentedEmbeddingStore implements EmbeddingStore {
+
+    protected final int dimension;
+    protected final int segmentSize;
+    protected final DotProduct dotProduct;
+    protected final Object writeLock = new Object();
+
+    private final int segmentShift;
+    private final int segmentMask;
+
+    private volatile VectorSegment[] segments = new VectorSegment[0];
+    private volatile int size;
+
+    protected SegmentedEmbeddingStore(int dimension, int segmentSize, DotProduct dotProduct) {
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("Embedding dimension must be positive: " + dimension);
+        }
+        if (segmentSize <= 0 || Integer.bitCount(segmentSize) != 1) {
+            throw new IllegalArgumentException("Segment size must be a positive power of two: " + segmentSize);
+        }
+        this.dimension = dimension;
+        this.segmentSize = segmentSize;
+        this.segmentShift = Integer.numberOfTrailingZeros(segmentSize);
+        this.segmentMask = segmentSize - 1;
+        this.dotProduct = dotProduct;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int add(DocumentEmbedding document) {
+        float[] embedding = document.getEmbedding();
+        if (embedding.length != dimension) {
+            throw new IllegalArgumentException(
+                "Expected embedding of dimension " + dimension + " but got " + embedding.length);
+        }
+        float[] unitVector = VectorMath.normalize(embedding);
+        StoredDocument stored = new StoredDocument(
+            document.getContent(), document.getContentType(), document.getMetadata(), document.getCreatedAt());
+
+        synchronized (writeLock) {
+            int id = size;
+            beforeAppend(id, unitVector, stored);
+            append(unitVector, stored);
+            afterAppend(id);
+            return id;
+        }
+    }
+
+    @Override
+    public StoredDocument document(int id) {
+        checkId(id, size);
+        return segments[id >>> segmentShift].document(id & segmentMask);
+    }
+
+    @Override
+    public float dot(int id, float[] unitQuery) {
+        checkId(id, size);
+        return segments[id >>> segmentShift].dot(dotProduct, unitQuery, id & segmentMask);
+    }
+
+    @Override
+    public void copyVector(int id, float[] target) {
+        checkId(id, size);
+        segments[id >>> segmentShift].copyVector(id & segmentMask, target);
+    }
+
+    @Override
+    public Snapshot snapshot() {
+        int visible = size;
+        return new SegmentSnapshot(segments, visible);
+    }
+
+    /**
+     * Called under the write lock before document {@code id} is written, e.g. to log it durably.
+     * Throwing leaves the store unchanged.
+     */
+    protected void beforeAppend(int id, float[] unitVector, StoredDocument document) {
+    }
+
+    /**
+     * Called under the write lock once document {@code id} is visible.
+     */
+    protected void afterAppend(int id) {
+    }
+
+    /**
+     * Appends an already normalized vector and publishes it. Caller holds the write lock.
+     */
+    protected final void append(float[] unitVector, StoredDocument document) {
+        int id = size;
+        int index = id >>> segmentShift;
+        VectorSegment[] current = segments;
+        HeapSegment segment;
+        if (index == current.length) {
+            segment = new HeapSegment(segmentSize, dimension);
+            installSegment(index, segment);
+        } else {
+            segment = (HeapSegment) current[index];
+        }
+        segment.set(id & segmentMask, unitVector, document);
+        size = id + 1;
+    }
+
+    /**
+     * Puts a segment at {@code index}, either appending a new one or swapping a sealed
+     * replacement for a heap segment. Caller holds the write lock.
+     */
+    protected final void installSegment(int index, VectorSegment segment) {
+        VectorSegment[] current = segments;
+        VectorSegment[] updated = index < current.length ? current.clone() : Arrays.copyOf(current, index + 1);
+        updated[index] = segment;
+        segments = updated;
+    }
+
+    /**
+     * Publishes {@code count} documents of a segment installed at the end of the store.
+     * Only used while loading. Caller holds the write lock.
+     */
+    protected final void publish(int count) {
+        size += count;
+    }
+
+    protected final VectorSegment segment(int index) {
+        return segments[index];
+    }
+
+    protected final int segmentCount() {
+        return segments.length;
+    }
+
+    private static void checkId(int id, int size) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Document id " + id + " out of range [0, " + size + ")");
+        }
+    }
+
+    private final class SegmentSnapshot implements Snapshot {
+
+        private final VectorSegment[] segments;
+        private final int size;
+
+        private SegmentSnapshot(VectorSegment[] segments, int size) {
+            this.segments = segments;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public int segmentCount() {
+            return size == 0 ? 0 : ((size - 1) >>> segmentShift) + 1;
+        }
+
+        @Override
+        public void scan(int segment, float[] unitQuery, TopK topK) {
+            int base = segment << segmentShift;
+            int count = Math.min(size - base, segmentSize);
+            segments[segment].scan(dotProduct, unitQuery, base, count, topK);
+        }
+    }
+}
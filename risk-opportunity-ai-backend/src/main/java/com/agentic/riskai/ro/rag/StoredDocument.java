@@ -0,0 +1,15 @@
+package com.agentic.riskai.ro.rag;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Payload kept next to a stored vector. The vector itself lives in the
+ * {@link EmbeddingStore} slab and is addressed by the document id.
+ */
+public record StoredDocument(
+    String content,
+    String contentType,
+    Map<String, Object> metadata,
+    LocalDateTime createdAt
+) {}
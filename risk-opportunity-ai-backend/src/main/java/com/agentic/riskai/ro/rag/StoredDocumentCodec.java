@@ -0,0 +1,48 @@
+package com.agentic.riskai.ro.rag;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JSON encoding of the document payload kept next to vectors on disk.
+ */
+final class StoredDocumentCodec {
+
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    byte[] encode(StoredDocument document) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("content", document.content());
+        json.put("contentType", document.contentType());
+        json.put("metadata", document.metadata());
+        json.put("createdAt", document.createdAt() == null ? null : document.createdAt().toString());
+        try {
+            return objectMapper.writeValueAsBytes(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode document payload", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    StoredDocument decode(byte[] bytes) {
+        try {
+            Map<String, Object> json = objectMapper.readValue(bytes, JSON_OBJECT);
+            Object createdAt = json.get("createdAt");
+            return new StoredDocument(
+                (String) json.get("content"),
+                (String) json.get("contentType"),
+                (Map<String, Object>) json.get("metadata"),
+                createdAt == null ? null : LocalDateTime.parse((String) createdAt));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decode document payload", e);
+        }
+    }
+}
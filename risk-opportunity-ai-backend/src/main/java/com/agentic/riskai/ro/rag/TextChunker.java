@@ -0,0 +1,99 @@
+package com.agentic.riskai.ro.rag;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.CharBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits text into overlapping windows of at most {@code app.rag.chunk-size} characters,
+ * preferring to cut at whitespace. Chunks are produced lazily as {@link CharBuffer} views
+ * over the source text, so splitting never copies it.
+ */
+@Component
+public class TextChunker {
+
+    private final int chunkSize;
+    private final int chunkOverlap;
+
+    public TextChunker(@Value("${app.rag.chunk-size:1000}") int chunkSize,
+                       @Value("${app.rag.chunk-overlap:200}") int chunkOverlap) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        if (chunkOverlap < 0 || chunkOverlap >= chunkSize) {
+            throw new IllegalArgumentException("Chunk overlap must be in [0, " + chunkSize + "): " + chunkOverlap);
+        }
+        this.chunkSize = chunkSize;
+        this.chunkOverlap = chunkOverlap;
+    }
+
+    public Iterable<Chunk> chunks(CharSequence text) {
+        return () -> new ChunkIterator(text);
+    }
+
+    /**
+     * A window {@code [start, end)} of the source text; {@code text} is a view, not a copy.
+     */
+    public record Chunk(int index, int start, int end, CharSequence text) {}
+
+    private final class ChunkIterator implements Iterator<Chunk> {
+
+        private final CharSequence text;
+        private int start;
+        private int index;
+
+        private ChunkIterator(CharSequence text) {
+            this.text = text;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return start < text.length() || (index == 0 && text.length() == 0);
+        }
+
+        @Override
+        public Chunk next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int length = text.length();
+            int end = Math.min(start + chunkSize, length);
+            if (end < length) {
+                end = breakBefore(end);
+            }
+            Chunk chunk = new Chunk(index++, start, end, CharBuffer.wrap(text, start, end));
+            start = end >= length ? length : nextStart(end);
+            return chunk;
+        }
+
+        /**
+         * Moves a cut back to just after the last whitespace in the second half of the window.
+         */
+        private int breakBefore(int end) {
+            int floor = start + chunkSize / 2;
+            for (int i = end; i > floor; i--) {
+                if (Character.isWhitespace(text.charAt(i - 1))) {
+                    return i;
+                }
+            }
+            return end;
+        }
+
+        /**
+         * Starts the next window {@code chunkOverlap} characters before the cut, aligned
+         * forward to the next word so overlaps do not begin mid-word.
+         */
+        private int nextStart(int end) {
+            int next = Math.max(end - chunkOverlap, start + 1);
+            for (int i = next; i < end; i++) {
+                if (Character.isWhitespace(text.charAt(i - 1))) {
+                    return i;
+                }
+            }
+            return next;
+        }
+    }
+}
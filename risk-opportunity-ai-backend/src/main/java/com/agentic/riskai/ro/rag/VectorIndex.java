@@ -0,0 +1,20 @@
+package com.agentic.riskai.ro.rag;
+
+import java.util.List;
+
+/**
+ * Nearest-neighbour index over the vectors held by an {@link EmbeddingStore}.
+ * Selected with {@code app.rag.index.type} ({@code exact} or {@code hnsw}).
+ */
+public interface VectorIndex {
+
+    /**
+     * Makes an already stored document searchable.
+     */
+    void add(int id);
+
+    /**
+     * Returns up to {@code k} hits ordered by descending cosine similarity.
+     */
+    List<SearchHit> search(float[] query, int k);
+}
@@ -0,0 +1,32 @@
+package com.agentic.riskai.ro.rag;
+
+public final class VectorMath {
+
+    private VectorMath() {
+    }
+
+    public static float norm(float[] vector) {
+        double sum = 0;
+        for (float value : vector) {
+            sum += value * value;
+        }
+        return (float) Math.sqrt(sum);
+    }
+
+    /**
+     * Returns a unit-length copy of {@code vector}, or a zero vector if it has no length.
+     */
+    public static float[] normalize(float[] vector) {
+        float[] unit = new float[vector.length];
+        normalizeInto(vector, unit, 0);
+        return unit;
+    }
+
+    public static void normalizeInto(float[] vector, float[] target, int offset) {
+        float norm = norm(vector);
+        float scale = norm == 0f ? 0f : 1f / norm;
+        for (int i = 0; i < vector.length; i++) {
+            target[offset + i] = vector[i] * scale;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.agentic.riskai.ro.rag;
+
+/**
+ * A run of consecutive documents inside a {@link SegmentedEmbeddingStore}, addressed by local id.
+ */
+abstract class VectorSegment {
+
+    abstract StoredDocument document(int local);
+
+    abstract float dot(DotProduct dotProduct, float[] unitQuery, int local);
+
+    abstract void copyVector(int local, float[] target);
+
+    /**
+     * Scores the first {@code count} documents, reporting them as ids {@code base + local}.
+     */
+    abstract void scan(DotProduct dotProduct, float[] unitQuery, int base, int count, TopK topK);
+}
@@ -0,0 +1,14 @@
+package com.agentic.riskai.ro.repository;
+
+import com.agentic.riskai.ro.model.AnalysisJobEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AnalysisJobRepository extends JpaRepository<AnalysisJobEntity, String> {
+
+    List<AnalysisJobEntity> findByStatusInOrderByCreatedAtAsc(Collection<AnalysisJobEntity.Status> statuses);
+}
@@ -3,7 +3,14 @@ package com.agentic.riskai.ro.repository;
 import com.agentic.riskai.ro.model.RiskOpportunityEntity;
 import com.agentic.riskai.ro.model.AnalysisType;
 import com.agentic.riskai.ro.model.PriorityLevel;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,8 +18,47 @@ import java.util.List;
 @Repository
 public interface RiskOpportunityRepository extends JpaRepository<RiskOpportunityEntity, Long> {
     
+    // Polled by the dashboard: results go to the query cache, which Hibernate invalidates
+    // whenever risk_opportunities is written
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "riskOpportunityQueries")
+    })
     List<RiskOpportunityEntity> findByTypeOrderByCreatedAtDesc(AnalysisType type);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "riskOpportunityQueries")
+    })
     List<RiskOpportunityEntity> findByPriorityOrderByRiskScoreDesc(PriorityLevel priority);
+    
     boolean existsByTitleAndDescription(String title, String description);
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "riskOpportunityQueries")
+    })
+    long countByType(AnalysisType type);
+    
+    // The methods below take the result type, so callers can ask for the entity or a projection
+    
+    <T> Page<T> findAllBy(Pageable pageable, Class<T> projection);
+    <T> Page<T> findByType(AnalysisType type, Pageable pageable, Class<T> projection);
+    
+    /** Top-N by risk score, served from the (type, risk_score) index. */
+    <T> List<T> findByTypeOrderByRiskScoreDesc(AnalysisType type, Limit limit, Class<T> projection);
+    
+    /** Keyset pagination, newest first: the first page, then the page after a given id. */
+    <T> List<T> findAllByOrderByIdDesc(Limit limit, Class<T> projection);
+    <T> List<T> findByIdLessThanOrderByIdDesc(Long id, Limit limit, Class<T> projection);
+    
+    /**
+     * Row counts grouped by type, priority, category and whole risk score points, as
+     * {@code [type, priority, category, floor(riskScore), count]}.
+     */
+    @Query("select e.type, e.priority, e.category, floor(e.riskScore), count(e) from RiskOpportunityEntity e "
+            + "group by e.type, e.priority, e.category, floor(e.riskScore)")
+    List<Object[]> countGroups();
+    
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.agentic.riskai.ro.resilience;
+
+/**
+ * Adaptive concurrency limit using additive increase / multiplicative decrease. Every
+ * successful call while the limit is in use raises it by {@code 1 / limit}, roughly one
+ * per round of calls; a dropped call (throttled or timed out) multiplies it by the
+ * backoff ratio. The limit stays within {@code [minLimit, maxLimit]}.
+ */
+public class AimdLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+
+    private double limit;
+    private int inFlight;
+
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limiter bounds: " + minLimit + ".." + maxLimit);
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be in (0, 1): " + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight < (int) limit) {
+            inFlight++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns a permit that was not used for a call.
+     */
+    public synchronized void release() {
+        inFlight--;
+    }
+
+    public synchronized void onSuccess() {
+        // Only grow while the limit is actually being used, not when traffic is light
+        if (inFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+        inFlight--;
+    }
+
+    public synchronized void onDropped() {
+        limit = Math.max(minLimit, limit * backoffRatio);
+        inFlight--;
+    }
+
+    /**
+     * The call failed for a reason that says nothing about upstream capacity.
+     */
+    public synchronized void onIgnored() {
+        inFlight--;
+    }
+
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+}
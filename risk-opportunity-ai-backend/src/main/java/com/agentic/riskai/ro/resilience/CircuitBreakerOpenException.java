@@ -0,0 +1,11 @@
+package com.agentic.riskai.ro.resilience;
+
+/**
+ * Thrown instead of calling an upstream whose circuit breaker is open.
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    public CircuitBreakerOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,45 @@
+package com.agentic.riskai.ro.resilience;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Limiter, rate limiter, retry policy and circuit breaker guarding the Gemini API,
+ * configured under {@code app.ai.gemini}.
+ */
+@Configuration
+public class GeminiResilienceConfig {
+
+    @Bean
+    public AimdLimiter geminiConcurrencyLimiter(@Value("${app.ai.gemini.limiter.initial-limit:16}") int initialLimit,
+                                                @Value("${app.ai.gemini.limiter.min-limit:1}") int minLimit,
+                                                @Value("${app.ai.gemini.max-connections:64}") int maxConnections,
+                                                @Value("${app.ai.gemini.limiter.backoff-ratio:0.9}") double backoffRatio) {
+        return new AimdLimiter(initialLimit, minLimit, maxConnections, backoffRatio);
+    }
+
+    @Bean
+    public TokenBucket geminiRateLimiter(@Value("${app.ai.gemini.rate-limit.permits-per-second:10}") double permitsPerSecond,
+                                         @Value("${app.ai.gemini.rate-limit.burst:20}") int burst) {
+        return new TokenBucket(permitsPerSecond, burst);
+    }
+
+    @Bean
+    public RetryPolicy geminiRetryPolicy(@Value("${app.ai.gemini.retry.max-attempts:3}") int maxAttempts,
+                                         @Value("${app.ai.gemini.retry.base-delay:500ms}") Duration baseDelay,
+                                         @Value("${app.ai.gemini.retry.max-delay:10s}") Duration maxDelay) {
+        return new RetryPolicy(maxAttempts, baseDelay, maxDelay);
+    }
+
+    @Bean
+    public CircuitBreaker geminiCircuitBreaker(@Value("${app.ai.gemini.circuit-breaker.failure-rate-threshold:50}") int failureRateThreshold,
+                                               @Value("${app.ai.gemini.circuit-breaker.window-size:20}") int windowSize,
+                                               @Value("${app.ai.gemini.circuit-breaker.minimum-calls:10}") int minimumCalls,
+                                               @Value("${app.ai.gemini.circuit-breaker.open-duration:30s}") Duration openDuration,
+                                               @Value("${app.ai.gemini.circuit-breaker.half-open-calls:3}") int halfOpenCalls) {
+        return new CircuitBreaker(failureRateThreshold, windowSize, minimumCalls, openDuration, halfOpenCalls);
+    }
+}
@@ -0,0 +1,53 @@
+package com.agentic.riskai.ro.resilience;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries throttled and unavailable responses with exponential backoff and full jitter, so
+ * clients that failed together do not retry together.
+ */
+public class RetryPolicy {
+
+    private static final Set<Integer> RETRYABLE_STATUS = Set.of(429, 503);
+
+    private final int maxAttempts;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+
+    public RetryPolicy(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one attempt is required: " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayNanos = baseDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+    }
+
+    public int maxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @param attempt         the attempt that just failed, starting at 1
+     * @param retryAfterNanos the server's Retry-After, 0 if absent
+     */
+    public boolean shouldRetry(int attempt, int statusCode, long retryAfterNanos) {
+        return attempt < maxAttempts && RETRYABLE_STATUS.contains(statusCode) && retryAfterNanos <= maxDelayNanos;
+    }
+
+    /**
+     * Delay before the given retry (1 for the first retry): a random value up to
+     * {@code baseDelay * 2^(retry-1)}, capped at {@code maxDelay}, and never shorter than
+     * the server's Retry-After.
+     */
+    public long backoffNanos(int retry, long retryAfterNanos) {
+        long ceiling = baseDelayNanos << Math.min(retry - 1, 30);
+        if (ceiling <= 0 || ceiling > maxDelayNanos) {
+            ceiling = maxDelayNanos;
+        }
+        long jittered = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        return Math.max(jittered, retryAfterNanos);
+    }
+}
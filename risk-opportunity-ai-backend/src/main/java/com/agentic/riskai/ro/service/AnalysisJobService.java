@@ -0,0 +1,251 @@
+package com.agentic.riskai.ro.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.agentic.riskai.ro.model.AnalysisJobEntity;
+import com.agentic.riskai.ro.model.AnalysisRequest;
+import com.agentic.riskai.ro.model.PriorityLevel;
+import com.agentic.riskai.ro.model.RiskAnalysisResult;
+import com.agentic.riskai.ro.model.RiskOpportunityEntity;
+import com.agentic.riskai.ro.repository.AnalysisJobRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs analyses in the background. Submitting stores the job and returns its id at once;
+ * a fixed pool of {@code app.analysis.jobs.workers} threads takes queued jobs highest
+ * priority first (FIFO within a priority). Job state lives in the database, so it can be
+ * polled and queued work is resumed after a restart. If the job has a callback URL, its
+ * final state is POSTed there as JSON. The URL is checked by {@link CallbackUrlPolicy} when
+ * the job is submitted and again before the POST, since the host may resolve differently.
+ */
+@Slf4j
+@Service
+public class AnalysisJobService {
+
+    // Column lengths of analysis_jobs
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_DESCRIPTION_LENGTH = 4000;
+    private static final int MAX_CALLBACK_URL_LENGTH = 255;
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final AnalysisJobRepository jobRepository;
+    private final RiskOpportunityAIService aiService;
+    private final RiskOpportunityService riskOpportunityService;
+    private final ObjectMapper objectMapper;
+    private final int queueCapacity;
+    private final CallbackUrlPolicy callbackUrlPolicy;
+    private final ThreadPoolExecutor executor;
+    private final HttpClient callbackClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .followRedirects(HttpClient.Redirect.NEVER) // a redirect could lead to an internal host
+        .build();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public AnalysisJobService(AnalysisJobRepository jobRepository,
+                              RiskOpportunityAIService aiService,
+                              RiskOpportunityService riskOpportunityService,
+                              ObjectMapper objectMapper,
+                              @Value("${app.analysis.jobs.workers:8}") int workers,
+                              @Value("${app.analysis.jobs.queue-capacity:1000}") int queueCapacity,
+                              @Value("${app.analysis.jobs.callback.allowed-hosts:}") List<String> callbackAllowedHosts) {
+        this.jobRepository = jobRepository;
+        this.aiService = aiService;
+        this.riskOpportunityService = riskOpportunityService;
+        this.objectMapper = objectMapper;
+        this.queueCapacity = queueCapacity;
+        this.callbackUrlPolicy = new CallbackUrlPolicy(callbackAllowedHosts);
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<>());
+    }
+
+    /**
+     * Queues an analysis. Without an explicit priority the job runs at {@link PriorityLevel#MEDIUM}.
+     *
+     * @throws RejectedExecutionException when the queue is full
+     * @throws IllegalArgumentException if a field is too long to store or the callback URL is refused
+     */
+    public AnalysisJobEntity submitAnalysis(AnalysisRequest request, PriorityLevel priority, String callbackUrl) {
+        checkLength("title", request.getTitle(), MAX_TITLE_LENGTH);
+        AnalysisJobEntity job = newJob(AnalysisJobEntity.Kind.ANALYZE, request.getDescription(), priority, callbackUrl);
+        job.setTitle(request.getTitle());
+        job.setType(request.getType());
+        return enqueue(job);
+    }
+
+    /**
+     * Queues a RAG analysis of {@code query}.
+     *
+     * @throws RejectedExecutionException when the queue is full
+     * @throws IllegalArgumentException if the query is too long to store or the callback URL is refused
+     */
+    public AnalysisJobEntity submitRagAnalysis(String query, PriorityLevel priority, String callbackUrl) {
+        return enqueue(newJob(AnalysisJobEntity.Kind.RAG_ANALYSIS, query, priority, callbackUrl));
+    }
+
+    public Optional<AnalysisJobEntity> getJob(String jobId) {
+        return jobRepository.findById(jobId);
+    }
+
+    /**
+     * Requeues jobs that were queued or running when the application last stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingJobs() {
+        List<AnalysisJobEntity> pending = jobRepository.findByStatusInOrderByCreatedAtAsc(
+            EnumSet.of(AnalysisJobEntity.Status.QUEUED, AnalysisJobEntity.Status.RUNNING));
+        for (AnalysisJobEntity job : pending) {
+            job.setStatus(AnalysisJobEntity.Status.QUEUED);
+            job.setStartedAt(null);
+            jobRepository.save(job);
+            executor.execute(new QueuedJob(job.getId(), job.getPriority(), sequence.getAndIncrement()));
+        }
+        if (!pending.isEmpty()) {
+            log.info("Resumed {} pending analysis jobs", pending.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Queued jobs stay QUEUED in the database and are resumed on the next start
+        executor.shutdownNow();
+    }
+
+    private AnalysisJobEntity newJob(AnalysisJobEntity.Kind kind, String description, PriorityLevel priority,
+                                     String callbackUrl) {
+        checkLength("description", description, MAX_DESCRIPTION_LENGTH);
+        checkLength("callbackUrl", callbackUrl, MAX_CALLBACK_URL_LENGTH);
+        if (callbackUrl != null) {
+            callbackUrlPolicy.check(callbackUrl);
+        }
+        AnalysisJobEntity job = new AnalysisJobEntity();
+        job.setId(UUID.randomUUID().toString());
+        job.setKind(kind);
+        job.setDescription(description);
+        job.setStatus(AnalysisJobEntity.Status.QUEUED);
+        job.setPriority((priority == null ? PriorityLevel.MEDIUM : priority).ordinal());
+        job.setCallbackUrl(callbackUrl);
+        job.setCreatedAt(LocalDateTime.now());
+        return job;
+    }
+
+    private static void checkLength(String field, String value, int maxLength) {
+        if (value != null && value.length() > maxLength) {
+            throw new IllegalArgumentException(field + " is longer than " + maxLength + " characters");
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength - 3) + "...";
+    }
+
+    private AnalysisJobEntity enqueue(AnalysisJobEntity job) {
+        if (executor.getQueue().size() >= queueCapacity) {
+            throw new RejectedExecutionException("Analysis job queue is full (" + queueCapacity + " jobs)");
+        }
+        AnalysisJobEntity saved = jobRepository.save(job);
+        executor.execute(new QueuedJob(saved.getId(), saved.getPriority(), sequence.getAndIncrement()));
+        return saved;
+    }
+
+    private void run(String jobId) {
+        AnalysisJobEntity job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() != AnalysisJobEntity.Status.QUEUED) {
+            return;
+        }
+        job.setStatus(AnalysisJobEntity.Status.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+
+        try {
+            if (job.getKind() == AnalysisJobEntity.Kind.ANALYZE) {
+                RiskAnalysisResult aiResult = aiService.analyzeRiskOpportunityAsync(
+                    job.getDescription(), job.getType(), false).join();
+                RiskOpportunityEntity entity = riskOpportunityService.saveAnalysis(
+                    job.getTitle(), job.getDescription(), job.getType(), aiResult);
+                job.setResultId(entity.getId());
+            } else {
+                job.setResult(aiService.getAIAnalysisWithRAGAsync(job.getDescription(), false).join());
+            }
+            job.setStatus(AnalysisJobEntity.Status.COMPLETED);
+        } catch (Exception e) {
+            log.error("Analysis job {} failed", jobId, e);
+            job.setStatus(AnalysisJobEntity.Status.FAILED);
+            // The message can carry a whole Gemini response body
+            job.setError(truncate(String.valueOf(e.getMessage()), MAX_ERROR_LENGTH));
+        }
+        job.setFinishedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+        notifyCallback(job);
+    }
+
+    private void notifyCallback(AnalysisJobEntity job) {
+        if (job.getCallbackUrl() == null) {
+            return;
+        }
+        try {
+            HttpRequest request = HttpRequest.newBuilder(callbackUrlPolicy.check(job.getCallbackUrl()))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(job)))
+                .build();
+            callbackClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        log.warn("Callback for analysis job {} failed: {}", job.getId(), error.getMessage());
+                    } else if (response.statusCode() / 100 != 2) {
+                        log.warn("Callback for analysis job {} returned HTTP {}", job.getId(), response.statusCode());
+                    }
+                });
+        } catch (Exception e) {
+            log.warn("Could not send callback for analysis job {}: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Queue entry: higher priority first, then submission order.
+     */
+    private final class QueuedJob implements Runnable, Comparable<QueuedJob> {
+
+        private final String jobId;
+        private final int priority;
+        private final long sequence;
+
+        QueuedJob(String jobId, int priority, long sequence) {
+            this.jobId = jobId;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            AnalysisJobService.this.run(jobId);
+        }
+
+        @Override
+        public int compareTo(QueuedJob other) {
+            int byPriority = Integer.compare(other.priority, priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.agentic.riskai.ro.service;
+
+import org.springframework.stereotype.Component;
+
+import com.agentic.riskai.ro.model.RiskAnalysisResult;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns Gemini's answer to the analysis prompt into a {@link RiskAnalysisResult}.
+ *
+ * <p>One {@link ObjectReader} bound to the result type is built at startup and shared; it
+ * ignores unknown fields and accepts trailing commas and comments. Model text is cut down to
+ * the JSON object first: a surrounding {@code ```json} fence or prose is dropped, and an
+ * object cut off by the token limit is closed after its last complete value. A value that
+ * runs into the cut-off is dropped rather than guessed, and an answer missing any field the
+ * schema requires is rejected.
+ */
+@Component
+public class AnalysisResultParser {
+
+    private static final List<String> REQUIRED_FIELDS =
+        List.of("category", "impactScore", "probability", "priority", "detailedAnalysis", "keyFactors");
+
+    /**
+     * {@code generationConfig.responseSchema} for structured output, matching
+     * {@link RiskAnalysisResult}.
+     */
+    public static final Map<String, Object> RESPONSE_SCHEMA = Map.of(
+        "type", "OBJECT",
+        "properties", Map.of(
+            "category", Map.of("type", "STRING",
+                "enum", List.of("Technical", "Business", "Operational", "Financial", "Market")),
+            "impactScore", Map.of("type", "NUMBER", "description", "1 to 10"),
+            "probability", Map.of("type", "NUMBER", "description", "0 to 1"),
+            "priority", Map.of("type", "STRING", "enum", List.of("LOW", "MEDIUM", "HIGH", "CRITICAL")),
+            "detailedAnalysis", Map.of("type", "STRING"),
+            "mitigationStrategy", Map.of("type", "STRING", "nullable", true),
+            "exploitationPlan", Map.of("type", "STRING", "nullable", true),
+            "keyFactors", Map.of("type", "ARRAY", "items", Map.of("type", "STRING"))),
+        "required", REQUIRED_FIELDS);
+
+    private static final String FENCE = "```";
+
+    private final ObjectReader reader;
+
+    public AnalysisResultParser(ObjectMapper objectMapper) {
+        this.reader = objectMapper.readerFor(RiskAnalysisResult.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .withFeatures(JsonReadFeature.ALLOW_TRAILING_COMMA, JsonReadFeature.ALLOW_JAVA_COMMENTS);
+    }
+
+    /**
+     * @throws IOException if the text holds no JSON object, one that cannot be read, or one
+     *                     without all fields the response schema requires
+     */
+    public RiskAnalysisResult parse(String text) throws IOException {
+        JsonNode object = reader.readTree(extractObject(text));
+        for (String field : REQUIRED_FIELDS) {
+            if (!object.hasNonNull(field)) {
+                throw new IOException("Model response has no " + field);
+            }
+        }
+        return reader.readValue(object);
+    }
+
+    /**
+     * The first JSON object in {@code text}. If it was cut off, it is cut back to its last
+     * complete value and closed.
+     */
+    static String extractObject(String text) throws IOException {
+        int from = 0;
+        int fence = text.indexOf(FENCE);
+        if (fence >= 0) {
+            // Skip the fence and its language tag
+            int lineEnd = text.indexOf('\n', fence);
+            from = lineEnd < 0 ? fence + FENCE.length() : lineEnd + 1;
+        }
+        int start = text.indexOf('{', from);
+        if (start < 0) {
+            start = text.indexOf('{');
+            if (start < 0) {
+                throw new IOException("No JSON object in model response");
+            }
+        }
+
+        // Closing brackets still owed, innermost last
+        StringBuilder open = new StringBuilder();
+        // Where the text last ended on a complete value, and the brackets owed there
+        int safeEnd = -1;
+        StringBuilder safeOpen = new StringBuilder();
+        boolean inString = false;
+        boolean escaped = false;
+        boolean inKey = false;
+        char previous = 0;
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                    if (inKey) {
+                        inKey = false;
+                    } else {
+                        safeEnd = i + 1;
+                        safeOpen.setLength(0);
+                        safeOpen.append(open);
+                    }
+                }
+                continue;
+            }
+            switch (c) {
+                case '"' -> {
+                    inString = true;
+                    inKey = open.charAt(open.length() - 1) == '}' && (previous == '{' || previous == ',');
+                }
+                case '{', '[' -> {
+                    open.append(c == '{' ? '}' : ']');
+                    safeEnd = i + 1;
+                    safeOpen.setLength(0);
+                    safeOpen.append(open);
+                }
+                case '}', ']' -> {
+                    open.setLength(open.length() - 1);
+                    if (open.isEmpty()) {
+                        return text.substring(start, i + 1);
+                    }
+                    safeEnd = i + 1;
+                    safeOpen.setLength(0);
+                    safeOpen.append(open);
+                }
+                case ',' -> {
+                    // The value before the comma is complete, the comma itself is dropped
+                    safeEnd = i;
+                    safeOpen.setLength(0);
+                    safeOpen.append(open);
+                }
+                default -> {
+                }
+            }
+            if (!Character.isWhitespace(c)) {
+                previous = c;
+            }
+        }
+
+        // Cut off: a number or string that reaches the end may be incomplete (3. of 3.5, 0.5 of
+        // 0.55), so go back to the last complete value and close everything open there
+        StringBuilder repaired = new StringBuilder(safeEnd - start + safeOpen.length());
+        repaired.append(text, start, safeEnd);
+        int end = repaired.length();
+        while (end > 0 && Character.isWhitespace(repaired.charAt(end - 1))) {
+            end--;
+        }
+        repaired.setLength(end);
+        if (repaired.charAt(end - 1) == ',') {
+            repaired.setLength(end - 1);
+        }
+        return repaired.append(safeOpen.reverse()).toString();
+    }
+}
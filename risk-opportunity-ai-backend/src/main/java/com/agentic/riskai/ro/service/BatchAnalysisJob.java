@@ -0,0 +1,75 @@
+package com.agentic.riskai.ro.service;
+
+import com.agentic.riskai.ro.model.AnalysisRequest;
+import com.agentic.riskai.ro.model.BatchAnalysisStatus;
+import com.agentic.riskai.ro.model.RiskAnalysisResult;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one batch analysis. Analyzed items are handed from the generation stage
+ * to the persistence stage through {@link #queue()}.
+ */
+class BatchAnalysisJob {
+
+    enum Status { RUNNING, COMPLETED, FAILED }
+
+    record Analyzed(AnalysisRequest request, RiskAnalysisResult result) {
+    }
+
+    /** Marks the end of the generation stage. */
+    static final Analyzed END_OF_INPUT = new Analyzed(null, null);
+
+    private final String id = UUID.randomUUID().toString();
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final int received;
+    private final BlockingQueue<Analyzed> queue = new LinkedBlockingQueue<>();
+
+    final AtomicLong analyzed = new AtomicLong();
+    final AtomicLong persisted = new AtomicLong();
+    final AtomicLong failed = new AtomicLong();
+    final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile Status status = Status.RUNNING;
+    private volatile String error;
+    private volatile LocalDateTime finishedAt;
+
+    BatchAnalysisJob(int received) {
+        this.received = received;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    BlockingQueue<Analyzed> queue() {
+        return queue;
+    }
+
+    boolean isFinished() {
+        return status != Status.RUNNING;
+    }
+
+    LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    void fail(String message) {
+        error = message;
+    }
+
+    void finish() {
+        finishedAt = LocalDateTime.now();
+        status = error == null ? Status.COMPLETED : Status.FAILED;
+    }
+
+    BatchAnalysisStatus toStatus() {
+        return new BatchAnalysisStatus(id, status.name(), received, analyzed.get(), persisted.get(), failed.get(),
+            inFlight.get(), startedAt, finishedAt, error);
+    }
+}
@@ -0,0 +1,180 @@
+package com.agentic.riskai.ro.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.agentic.riskai.ro.model.AnalysisRequest;
+import com.agentic.riskai.ro.model.BatchAnalysisStatus;
+import com.agentic.riskai.ro.model.RiskAnalysisResult;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch analysis pipeline. A coordinator keeps up to {@code app.analysis.batch.concurrency}
+ * analyses in flight (prompt, generate, parse); finished items are persisted by a second
+ * stage in groups of {@code persist-batch-size}, so generation and database writes overlap
+ * and inserts go out as JDBC batches. Items Gemini cannot analyze are counted as failed;
+ * they never fall back to a mock analysis.
+ */
+@Slf4j
+@Service
+public class BatchAnalysisService {
+
+    private static final long JOB_RETENTION_HOURS = 1;
+
+    private final RiskOpportunityAIService aiService;
+    private final RiskOpportunityService riskOpportunityService;
+    private final int concurrency;
+    private final int persistBatchSize;
+    private final Duration persistLinger;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, BatchAnalysisJob> jobs = new ConcurrentHashMap<>();
+
+    public BatchAnalysisService(RiskOpportunityAIService aiService,
+                                RiskOpportunityService riskOpportunityService,
+                                @Value("${app.analysis.batch.concurrency:16}") int concurrency,
+                                @Value("${app.analysis.batch.persist-batch-size:50}") int persistBatchSize,
+                                @Value("${app.analysis.batch.persist-linger:500ms}") Duration persistLinger) {
+        this.aiService = aiService;
+        this.riskOpportunityService = riskOpportunityService;
+        this.concurrency = concurrency;
+        this.persistBatchSize = persistBatchSize;
+        this.persistLinger = persistLinger;
+    }
+
+    /**
+     * Starts analyzing the requests and returns right away; progress is reported by
+     * {@link #getStatus(String)}.
+     */
+    public BatchAnalysisStatus submit(List<AnalysisRequest> requests) {
+        LocalDateTime expiry = LocalDateTime.now().minusHours(JOB_RETENTION_HOURS);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(expiry));
+
+        BatchAnalysisJob job = new BatchAnalysisJob(requests.size());
+        jobs.put(job.getId(), job);
+        executor.execute(() -> analyze(List.copyOf(requests), job));
+        executor.execute(() -> persist(job));
+        log.info("Started batch analysis job {} with {} items", job.getId(), requests.size());
+        return job.toStatus();
+    }
+
+    public Optional<BatchAnalysisStatus> getStatus(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(BatchAnalysisJob::toStatus);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void analyze(List<AnalysisRequest> requests, BatchAnalysisJob job) {
+        Semaphore permits = new Semaphore(concurrency);
+        try {
+            for (AnalysisRequest request : requests) {
+                if (!isValid(request)) {
+                    job.failed.incrementAndGet();
+                    continue;
+                }
+                permits.acquire();
+                job.inFlight.incrementAndGet();
+                aiService.analyzeRiskOpportunityAsync(request.getDescription(), request.getType(), false)
+                    .whenComplete((result, error) -> {
+                        job.inFlight.decrementAndGet();
+                        if (error != null) {
+                            log.warn("Batch analysis job {} could not analyze '{}': {}", job.getId(), request.getTitle(),
+                                error.getMessage());
+                            job.failed.incrementAndGet();
+                        } else {
+                            job.analyzed.incrementAndGet();
+                            job.queue().add(new BatchAnalysisJob.Analyzed(request, result));
+                        }
+                        permits.release();
+                    });
+            }
+            // Wait for the analyses still in flight
+            permits.acquire(concurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Interrupted while analyzing");
+        } finally {
+            job.queue().add(BatchAnalysisJob.END_OF_INPUT);
+        }
+    }
+
+    private void persist(BatchAnalysisJob job) {
+        List<BatchAnalysisJob.Analyzed> batch = new ArrayList<>(persistBatchSize);
+        boolean endOfInput = false;
+        try {
+            while (!endOfInput) {
+                batch.add(job.queue().take());
+                // Give the generation stage a moment to fill the batch
+                long deadline = System.nanoTime() + persistLinger.toNanos();
+                while (batch.size() < persistBatchSize && batch.get(batch.size() - 1) != BatchAnalysisJob.END_OF_INPUT) {
+                    BatchAnalysisJob.Analyzed next = job.queue().poll(
+                        Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                endOfInput = batch.remove(BatchAnalysisJob.END_OF_INPUT);
+                save(batch, job);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Interrupted while persisting");
+        } finally {
+            job.finish();
+            log.info("Batch analysis job {} finished: {}", job.getId(), job.toStatus());
+        }
+    }
+
+    private void save(List<BatchAnalysisJob.Analyzed> batch, BatchAnalysisJob job) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<AnalysisRequest> requests = new ArrayList<>(batch.size());
+        List<RiskAnalysisResult> results = new ArrayList<>(batch.size());
+        for (BatchAnalysisJob.Analyzed item : batch) {
+            requests.add(item.request());
+            results.add(item.result());
+        }
+        try {
+            riskOpportunityService.saveAnalyses(requests, results);
+            job.persisted.addAndGet(batch.size());
+        } catch (Exception e) {
+            // One bad item fails the whole batch; save the items one by one to keep the good ones
+            log.warn("Batch analysis job {} could not save a batch of {}, retrying item by item: {}",
+                job.getId(), batch.size(), e.getMessage());
+            for (BatchAnalysisJob.Analyzed item : batch) {
+                try {
+                    AnalysisRequest request = item.request();
+                    riskOpportunityService.saveAnalysis(request.getTitle(), request.getDescription(),
+                        request.getType(), item.result());
+                    job.persisted.incrementAndGet();
+                } catch (Exception itemError) {
+                    job.failed.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private static boolean isValid(AnalysisRequest request) {
+        return request != null && request.getType() != null
+            && request.getDescription() != null && !request.getDescription().isBlank();
+    }
+}
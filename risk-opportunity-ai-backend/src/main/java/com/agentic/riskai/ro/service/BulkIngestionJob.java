@@ -0,0 +1,87 @@
+package com.agentic.riskai.ro.service;
+
+import com.agentic.riskai.ro.model.BulkIngestionStatus;
+import com.agentic.riskai.ro.model.DocumentUploadRequest;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one bulk upload. The parser puts documents on a bounded queue, so a
+ * fast upload waits for the indexing workers instead of buffering the whole stream.
+ */
+class BulkIngestionJob {
+
+    enum Status { RUNNING, COMPLETED, FAILED }
+
+    /** Marks the end of input; a worker that takes it puts it back for the others. */
+    static final DocumentUploadRequest END_OF_INPUT = new DocumentUploadRequest();
+
+    private final String id = UUID.randomUUID().toString();
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final BlockingQueue<DocumentUploadRequest> queue;
+    private final AtomicInteger activeWorkers;
+
+    final AtomicLong received = new AtomicLong();
+    final AtomicLong indexed = new AtomicLong();
+    final AtomicLong failed = new AtomicLong();
+    final AtomicLong chunks = new AtomicLong();
+
+    private volatile Status status = Status.RUNNING;
+    private volatile String error;
+    private volatile LocalDateTime finishedAt;
+
+    BulkIngestionJob(int queueCapacity, int workers) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.activeWorkers = new AtomicInteger(workers);
+    }
+
+    String getId() {
+        return id;
+    }
+
+    BlockingQueue<DocumentUploadRequest> queue() {
+        return queue;
+    }
+
+    boolean isFinished() {
+        return status != Status.RUNNING;
+    }
+
+    LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * Blocks while the queue is full.
+     */
+    void submit(DocumentUploadRequest document) throws InterruptedException {
+        received.incrementAndGet();
+        queue.put(document);
+    }
+
+    void endOfInput() throws InterruptedException {
+        queue.put(END_OF_INPUT);
+    }
+
+    void fail(String message) {
+        error = message;
+    }
+
+    void workerFinished() {
+        if (activeWorkers.decrementAndGet() == 0) {
+            queue.clear(); // the end-of-input marker the last worker put back
+            finishedAt = LocalDateTime.now();
+            status = error == null ? Status.COMPLETED : Status.FAILED;
+        }
+    }
+
+    BulkIngestionStatus toStatus() {
+        return new BulkIngestionStatus(id, status.name(), received.get(), indexed.get(), failed.get(),
+            chunks.get(), queue.size(), startedAt, finishedAt, error);
+    }
+}
@@ -0,0 +1,298 @@
+package com.agentic.riskai.ro.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.agentic.riskai.ro.model.BulkIngestionStatus;
+import com.agentic.riskai.ro.model.DocumentUploadRequest;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bulk document ingestion. Uploads are parsed incrementally and handed to indexing workers
+ * through a bounded queue; workers embed and index documents in batches. Memory use depends
+ * on the queue capacity, not on the size of the upload.
+ *
+ * <p>Every job gets its own {@code app.rag.ingest.workers} indexing threads, so concurrent
+ * uploads are indexed side by side instead of waiting for each other's input to end.
+ *
+ * <p>An NDJSON request body is parsed on the request thread as it arrives. Multipart files
+ * are already spooled by the servlet container, so they are moved to temporary files and
+ * parsed by a reader thread while the request returns.
+ */
+@Slf4j
+@Service
+public class BulkIngestionService {
+
+    private static final long JOB_RETENTION_HOURS = 1;
+
+    private final RagService ragService;
+    private final ObjectMapper objectMapper;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final int workers;
+    private final int sectionSize;
+    private final int sectionOverlap;
+    // Readers and indexing workers block until their job's input ends, so threads are not shared
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, BulkIngestionJob> jobs = new ConcurrentHashMap<>();
+
+    public BulkIngestionService(RagService ragService,
+                                ObjectMapper objectMapper,
+                                @Value("${app.rag.ingest.queue-capacity:256}") int queueCapacity,
+                                @Value("${app.rag.ingest.batch-size:32}") int batchSize,
+                                @Value("${app.rag.ingest.workers:4}") int workers,
+                                @Value("${app.rag.ingest.section-size:65536}") int sectionSize,
+                                @Value("${app.rag.chunk-overlap:200}") int chunkOverlap) {
+        this.ragService = ragService;
+        this.objectMapper = objectMapper;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.workers = workers;
+        this.sectionSize = sectionSize;
+        this.sectionOverlap = Math.max(0, Math.min(chunkOverlap, sectionSize / 2));
+    }
+
+    /**
+     * Ingests newline-delimited JSON documents (or a JSON array of them) in the shape of
+     * {@link DocumentUploadRequest}. Returns once the stream is consumed; indexing may
+     * still be running and can be followed with {@link #getStatus(String)}.
+     */
+    public BulkIngestionStatus ingestNdjson(InputStream body) {
+        BulkIngestionJob job = startJob();
+        try {
+            parse(body, job);
+        } finally {
+            finishInput(job);
+        }
+        return job.toStatus();
+    }
+
+    /**
+     * Ingests uploaded files: {@code .json}/{@code .ndjson}/{@code .jsonl} parts are parsed like
+     * {@link #ingestNdjson(InputStream)}, any other part is read as text and stored in documents
+     * of {@code app.rag.ingest.section-size} characters. Returns once the files are handed over;
+     * parsing and indexing continue in the background.
+     */
+    public BulkIngestionStatus ingestFiles(List<MultipartFile> files) {
+        BulkIngestionJob job = startJob();
+        List<Upload> uploads = new ArrayList<>(files.size());
+        try {
+            for (MultipartFile file : files) {
+                // The container deletes its copy when the request ends
+                Path temp = Files.createTempFile("bulk-upload-", ".part");
+                uploads.add(new Upload(temp, file.getOriginalFilename(), file.getContentType(), isJson(file)));
+                file.transferTo(temp);
+            }
+        } catch (IOException e) {
+            job.fail("Could not read upload: " + e.getMessage());
+            deleteUploads(uploads);
+            finishInput(job);
+            return job.toStatus();
+        }
+        executor.execute(() -> {
+            try {
+                for (Upload upload : uploads) {
+                    read(upload, job);
+                }
+            } finally {
+                deleteUploads(uploads);
+                finishInput(job);
+            }
+        });
+        return job.toStatus();
+    }
+
+    public Optional<BulkIngestionStatus> getStatus(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(BulkIngestionJob::toStatus);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private BulkIngestionJob startJob() {
+        LocalDateTime expiry = LocalDateTime.now().minusHours(JOB_RETENTION_HOURS);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(expiry));
+
+        BulkIngestionJob job = new BulkIngestionJob(queueCapacity, workers);
+        jobs.put(job.getId(), job);
+        for (int i = 0; i < workers; i++) {
+            executor.execute(() -> drain(job));
+        }
+        log.info("Started bulk ingestion job {}", job.getId());
+        return job;
+    }
+
+    private void parse(InputStream in, BulkIngestionJob job) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token == JsonToken.START_OBJECT) {
+                job.submit(objectMapper.readValue(parser, DocumentUploadRequest.class));
+                token = parser.nextToken();
+            }
+            if (token != null && !(array && token == JsonToken.END_ARRAY)) {
+                throw new IOException("Expected a JSON document object but found " + token
+                    + " at " + parser.getCurrentLocation());
+            }
+        } catch (IOException e) {
+            log.warn("Bulk ingestion job {} stopped parsing: {}", job.getId(), e.getMessage());
+            job.fail("Invalid upload: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Interrupted while reading upload");
+        }
+    }
+
+    private record Upload(Path file, String filename, String contentType, boolean json) {
+    }
+
+    private void read(Upload upload, BulkIngestionJob job) {
+        try (InputStream in = Files.newInputStream(upload.file())) {
+            if (upload.json()) {
+                parse(in, job);
+            } else {
+                readText(in, upload, job);
+            }
+        } catch (IOException e) {
+            log.warn("Bulk ingestion job {} could not read {}: {}", job.getId(), upload.filename(), e.getMessage());
+            job.fail("Could not read " + upload.filename() + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Interrupted while reading upload");
+        }
+    }
+
+    /**
+     * Splits a text file into documents of at most {@code sectionSize} characters. Each section
+     * repeats the last {@code chunk-overlap} characters of the previous one, so no chunk loses
+     * its context at a section boundary.
+     */
+    private void readText(InputStream in, Upload upload, BulkIngestionJob job) throws IOException, InterruptedException {
+        String contentType = upload.contentType() == null ? "text/plain" : upload.contentType();
+        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        char[] buffer = new char[sectionSize];
+        int length = 0;
+        int carried = 0;
+        int section = 0;
+        int read;
+        while ((read = reader.read(buffer, length, buffer.length - length)) >= 0) {
+            length += read;
+            if (length < buffer.length) {
+                continue;
+            }
+            job.submit(section(buffer, length, contentType, upload.filename(), section++));
+            carried = Math.min(sectionOverlap, length);
+            System.arraycopy(buffer, length - carried, buffer, 0, carried);
+            length = carried;
+        }
+        if (length > carried || section == 0) {
+            job.submit(section(buffer, length, contentType, upload.filename(), section));
+        }
+    }
+
+    private static DocumentUploadRequest section(char[] buffer, int length, String contentType, String filename,
+                                                 int section) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("filename", filename);
+        metadata.put("section", section);
+        return new DocumentUploadRequest(new String(buffer, 0, length), contentType, metadata);
+    }
+
+    private static void deleteUploads(List<Upload> uploads) {
+        for (Upload upload : uploads) {
+            try {
+                Files.deleteIfExists(upload.file());
+            } catch (IOException e) {
+                log.warn("Could not delete upload {}: {}", upload.file(), e.getMessage());
+            }
+        }
+    }
+
+    private void finishInput(BulkIngestionJob job) {
+        try {
+            job.endOfInput();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain(BulkIngestionJob job) {
+        List<DocumentUploadRequest> batch = new ArrayList<>(batchSize);
+        boolean endOfInput = false;
+        try {
+            while (!endOfInput) {
+                batch.add(job.queue().take());
+                job.queue().drainTo(batch, batchSize - 1);
+                endOfInput = batch.removeIf(document -> document == BulkIngestionJob.END_OF_INPUT);
+                if (endOfInput) {
+                    job.queue().put(BulkIngestionJob.END_OF_INPUT);
+                }
+                index(batch, job);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Interrupted while indexing");
+        } finally {
+            job.workerFinished();
+            if (job.isFinished()) {
+                log.info("Bulk ingestion job {} finished: {}", job.getId(), job.toStatus());
+            }
+        }
+    }
+
+    private void index(List<DocumentUploadRequest> batch, BulkIngestionJob job) {
+        List<DocumentUploadRequest> valid = new ArrayList<>(batch.size());
+        for (DocumentUploadRequest document : batch) {
+            if (document.getContent() == null || document.getContent().isBlank()) {
+                job.failed.incrementAndGet();
+            } else {
+                valid.add(document);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+        try {
+            job.chunks.addAndGet(ragService.storeDocuments(valid));
+            job.indexed.addAndGet(valid.size());
+        } catch (Exception e) {
+            log.error("Bulk ingestion job {} failed to index a batch of {} documents", job.getId(), valid.size(), e);
+            job.failed.addAndGet(valid.size());
+        }
+    }
+
+    private static boolean isJson(MultipartFile file) {
+        String name = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase();
+        return name.endsWith(".json") || name.endsWith(".ndjson") || name.endsWith(".jsonl")
+            || "application/x-ndjson".equals(file.getContentType()) || "application/json".equals(file.getContentType());
+    }
+}
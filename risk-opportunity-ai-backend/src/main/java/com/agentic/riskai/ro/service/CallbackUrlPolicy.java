@@ -0,0 +1,91 @@
+package com.agentic.riskai.ro.service;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Decides whether the server may POST a job's result to a caller-supplied URL. Only http and
+ * https are accepted, and every address the host resolves to must be public: loopback,
+ * link-local (including cloud metadata endpoints), site-local, unique-local, wildcard and
+ * multicast addresses are refused, so a callback cannot reach internal services.
+ *
+ * <p>If {@code allowedHosts} is not empty the host must also be on it; an entry starting with
+ * {@code .} matches every subdomain.
+ */
+final class CallbackUrlPolicy {
+
+    private final Set<String> allowedHosts;
+
+    CallbackUrlPolicy(Collection<String> allowedHosts) {
+        this.allowedHosts = allowedHosts.stream()
+            .map(String::strip)
+            .filter(host -> !host.isEmpty())
+            .map(host -> host.toLowerCase(Locale.ROOT))
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the URL must not be called
+     */
+    URI check(String url) {
+        URI uri;
+        try {
+            uri = new URI(url);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid callback URL: " + url);
+        }
+        String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+        if (!scheme.equals("http") && !scheme.equals("https")) {
+            throw new IllegalArgumentException("Callback URL must be http or https: " + url);
+        }
+        if (uri.getHost() == null || uri.getUserInfo() != null) {
+            throw new IllegalArgumentException("Callback URL must have a host and no user info: " + url);
+        }
+        String host = uri.getHost().toLowerCase(Locale.ROOT);
+        if (!allowedHosts.isEmpty() && !isAllowed(host)) {
+            throw new IllegalArgumentException("Callback host is not allowed: " + host);
+        }
+
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(host);
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Callback host cannot be resolved: " + host);
+        }
+        for (InetAddress address : addresses) {
+            if (!isPublic(address)) {
+                throw new IllegalArgumentException("Callback host " + host + " resolves to a non-public address");
+            }
+        }
+        return uri;
+    }
+
+    private boolean isAllowed(String host) {
+        for (String allowed : allowedHosts) {
+            if (allowed.startsWith(".") ? host.endsWith(allowed) : host.equals(allowed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isPublic(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        if (bytes.length == 16) {
+            // fc00::/7 unique local, the IPv6 counterpart of the private IPv4 ranges
+            return (bytes[0] & 0xFE) != 0xFC;
+        }
+        // 100.64.0.0/10 carrier-grade NAT, 0.0.0.0/8
+        return !((bytes[0] & 0xFF) == 100 && (bytes[1] & 0xC0) == 64) && bytes[0] != 0;
+    }
+}
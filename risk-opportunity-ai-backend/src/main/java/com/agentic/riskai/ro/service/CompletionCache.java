@@ -0,0 +1,161 @@
+package com.agentic.riskai.ro.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed cache of Gemini completions. Entries are keyed by the SHA-256 of the
+ * model, the whitespace-normalized prompt and the ids of the retrieved context documents.
+ *
+ * <p>The memory tier is a Caffeine cache (W-TinyLFU eviction, bounded by entry count and
+ * TTL). With {@code app.ai.cache.disk.enabled} completions are also written to one file
+ * per key, so they survive restarts; expired files are removed when they are read.
+ * Hit and miss counts are published as {@code gemini.completions} cache metrics.
+ */
+@Slf4j
+@Component
+public class CompletionCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Path diskPath;
+    private final Cache<String, String> memory;
+    private final Counter diskHits;
+    private final Counter diskMisses;
+
+    public CompletionCache(MeterRegistry meterRegistry,
+                           @Value("${app.ai.cache.enabled:true}") boolean enabled,
+                           @Value("${app.ai.cache.maximum-size:10000}") long maximumSize,
+                           @Value("${app.ai.cache.ttl:24h}") Duration ttl,
+                           @Value("${app.ai.cache.disk.enabled:false}") boolean diskEnabled,
+                           @Value("${app.ai.cache.disk.path:./data/completions}") String diskPath) {
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.diskPath = diskEnabled ? Paths.get(diskPath) : null;
+        this.memory = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .<String, String>build(), "gemini.completions");
+        this.diskHits = meterRegistry.counter("gemini.completions.disk", "result", "hit");
+        this.diskMisses = meterRegistry.counter("gemini.completions.disk", "result", "miss");
+    }
+
+    public static String key(String model, String prompt, List<?> contextIds) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(model.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(normalize(prompt).getBytes(StandardCharsets.UTF_8));
+            for (Object id : contextIds) {
+                digest.update((byte) 0);
+                digest.update(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public Optional<String> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String completion = memory.getIfPresent(key);
+        if (completion == null && diskPath != null) {
+            completion = readFromDisk(key);
+            if (completion != null) {
+                memory.put(key, completion);
+            }
+        }
+        return Optional.ofNullable(completion);
+    }
+
+    public void put(String key, String completion) {
+        if (!enabled) {
+            return;
+        }
+        memory.put(key, completion);
+        if (diskPath != null) {
+            writeToDisk(key, completion);
+        }
+    }
+
+    public void invalidate(String key) {
+        memory.invalidate(key);
+        if (diskPath != null) {
+            try {
+                Files.deleteIfExists(file(key));
+            } catch (IOException e) {
+                log.warn("Could not delete cached completion {}: {}", file(key), e.getMessage());
+            }
+        }
+    }
+
+    static String normalize(String prompt) {
+        return WHITESPACE.matcher(prompt.strip()).replaceAll(" ");
+    }
+
+    private String readFromDisk(String key) {
+        Path file = file(key);
+        try {
+            if (Files.exists(file)) {
+                if (Files.getLastModifiedTime(file).toInstant().plus(ttl).isAfter(Instant.now())) {
+                    diskHits.increment();
+                    return Files.readString(file, StandardCharsets.UTF_8);
+                }
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            log.warn("Could not read cached completion {}: {}", file, e.getMessage());
+        }
+        diskMisses.increment();
+        return null;
+    }
+
+    private void writeToDisk(String key, String completion) {
+        Path file = file(key);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), key, ".tmp");
+            Files.writeString(temp, completion, StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.warn("Could not write cached completion {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Path file(String key) {
+        return diskPath.resolve(key.substring(0, 2)).resolve(key + ".txt");
+    }
+}
@@ -0,0 +1,137 @@
+package com.agentic.riskai.ro.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.agentic.riskai.ro.rag.SearchHit;
+import com.agentic.riskai.ro.rag.StoredDocument;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Packs retrieved chunks into the context of a RAG prompt, best hit first, until the
+ * {@code app.rag.context.token-budget} is spent. Tokens are counted by {@link TokenEstimator}.
+ *
+ * <p>Neighbouring chunks of one document share {@code app.rag.chunk-overlap} characters; the
+ * part of a chunk already covered by a packed chunk of the same document is left out, and a
+ * chunk that is fully covered, or whose text was already packed, is skipped. A chunk that
+ * does not fit is skipped in favour of smaller ones further down, except the first, which is
+ * cut to the budget so that one huge document cannot crowd out the prompt.
+ */
+@Component
+public class ContextBuilder {
+
+    private static final String SEPARATOR = "\n\n";
+
+    private final int tokenBudget;
+
+    public ContextBuilder(@Value("${app.rag.context.token-budget:2000}") int tokenBudget) {
+        this.tokenBudget = tokenBudget;
+    }
+
+    public PackedContext pack(List<SearchHit> hits, IntFunction<StoredDocument> documents) {
+        StringBuilder text = new StringBuilder();
+        List<Integer> ids = new ArrayList<>(hits.size());
+        Map<Object, List<int[]>> covered = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        int tokens = 0;
+
+        for (SearchHit hit : hits) {
+            StoredDocument document = documents.apply(hit.id());
+            String content = document.content();
+            int from = 0;
+            int to = content.length();
+
+            Map<String, Object> metadata = document.metadata();
+            Object parent = metadata == null ? null : metadata.get(RagService.PARENT_ID);
+            int start = position(metadata, RagService.CHUNK_START);
+            List<int[]> ranges = null;
+            if (parent != null && start >= 0) {
+                ranges = covered.computeIfAbsent(parent, p -> new ArrayList<>());
+                int[] uncovered = uncovered(ranges, start, start + content.length());
+                if (uncovered == null) {
+                    continue;
+                }
+                from = uncovered[0] - start;
+                to = uncovered[1] - start;
+            }
+            String part = content.substring(from, to).strip();
+            if (part.isEmpty() || !seen.add(part)) {
+                continue;
+            }
+
+            int separatorTokens = text.isEmpty() ? 0 : TokenEstimator.estimate(SEPARATOR);
+            int cost = separatorTokens + TokenEstimator.estimate(part);
+            if (tokens + cost > tokenBudget) {
+                if (!ids.isEmpty()) {
+                    continue;
+                }
+                part = part.substring(0, TokenEstimator.prefixLength(part, tokenBudget));
+                if (part.isEmpty()) {
+                    break;
+                }
+                cost = TokenEstimator.estimate(part);
+                to = from + part.length();
+            }
+            if (!text.isEmpty()) {
+                text.append(SEPARATOR);
+            }
+            text.append(part);
+            tokens += cost;
+            ids.add(hit.id());
+            if (ranges != null) {
+                ranges.add(new int[] {start + from, start + to});
+            }
+        }
+        return new PackedContext(text, ids, tokens);
+    }
+
+    /**
+     * Largest part of {@code [start, end)} not covered by any of {@code ranges}, or
+     * {@code null} if it is fully covered.
+     */
+    private static int[] uncovered(List<int[]> ranges, int start, int end) {
+        List<int[]> gaps = new ArrayList<>();
+        gaps.add(new int[] {start, end});
+        for (int[] range : ranges) {
+            List<int[]> remaining = new ArrayList<>();
+            for (int[] gap : gaps) {
+                if (range[1] <= gap[0] || range[0] >= gap[1]) {
+                    remaining.add(gap);
+                    continue;
+                }
+                if (gap[0] < range[0]) {
+                    remaining.add(new int[] {gap[0], range[0]});
+                }
+                if (range[1] < gap[1]) {
+                    remaining.add(new int[] {range[1], gap[1]});
+                }
+            }
+            gaps = remaining;
+        }
+        int[] largest = null;
+        for (int[] gap : gaps) {
+            if (largest == null || gap[1] - gap[0] > largest[1] - largest[0]) {
+                largest = gap;
+            }
+        }
+        return largest;
+    }
+
+    private static int position(Map<String, Object> metadata, String key) {
+        Object value = metadata == null ? null : metadata.get(key);
+        return value instanceof Number number ? number.intValue() : -1;
+    }
+
+    /**
+     * @param ids the documents that contributed to {@code text}, in order
+     */
+    public record PackedContext(CharSequence text, List<Integer> ids, int tokens) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.agentic.riskai.ro.service;
+
+import lombok.Getter;
+
+/**
+ * Failed Gemini call: an error response, a response without a candidate, or a transport
+ * failure. {@link #getStatusCode()} is 0 unless Gemini answered with an error status.
+ */
+@Getter
+public class GeminiApiException extends RuntimeException {
+
+    private final int statusCode;
+
+    public GeminiApiException(int statusCode, String body) {
+        super("Gemini API returned HTTP " + statusCode + ": " + body);
+        this.statusCode = statusCode;
+    }
+
+    public GeminiApiException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = 0;
+    }
+}
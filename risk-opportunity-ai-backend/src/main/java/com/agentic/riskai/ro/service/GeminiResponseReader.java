@@ -0,0 +1,123 @@
+package com.agentic.riskai.ro.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Pulls {@code candidates[0].content.parts[*].text} and {@code finishReason} out of a Gemini
+ * response with the Jackson streaming parser. Everything else is skipped token by token, so
+ * no tree is built and the only strings allocated are the ones returned.
+ */
+final class GeminiResponseReader {
+
+    /**
+     * {@code finishReason} of a candidate that ran to its natural end; anything else (token
+     * limit, safety block, ...) means the text is incomplete.
+     */
+    static final String FINISHED = "STOP";
+
+    private GeminiResponseReader() {
+    }
+
+    /**
+     * @param text         the parts' text concatenated, {@code null} if there are no text parts
+     * @param finishReason {@code null} until the candidate is finished, e.g. in stream chunks
+     */
+    record Candidate(String text, String finishReason) {
+
+        boolean finished() {
+            return FINISHED.equals(finishReason);
+        }
+    }
+
+    /**
+     * Text of the first candidate, its parts concatenated; {@code null} if the response has
+     * no candidate with text parts.
+     */
+    static String firstCandidateText(JsonFactory jsonFactory, String json) throws IOException {
+        Candidate candidate = firstCandidate(jsonFactory, json);
+        return candidate == null ? null : candidate.text();
+    }
+
+    /**
+     * The first candidate, {@code null} if the response has none.
+     */
+    static Candidate firstCandidate(JsonFactory jsonFactory, String json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            Candidate candidate = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() == JsonToken.START_ARRAY && "candidates".equals(field)) {
+                    if (parser.nextToken() == JsonToken.START_OBJECT) {
+                        candidate = readCandidate(parser);
+                        skipRest(parser, JsonToken.END_ARRAY);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return candidate;
+        }
+    }
+
+    private static Candidate readCandidate(JsonParser parser) throws IOException {
+        StringBuilder text = new StringBuilder();
+        boolean found = false;
+        String finishReason = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.START_OBJECT && "content".equals(field)) {
+                found |= readContent(parser, text);
+            } else if (value == JsonToken.VALUE_STRING && "finishReason".equals(field)) {
+                finishReason = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new Candidate(found ? text.toString() : null, finishReason);
+    }
+
+    private static boolean readContent(JsonParser parser, StringBuilder text) throws IOException {
+        boolean found = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.START_ARRAY && "parts".equals(field)) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    found |= readPart(parser, text);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return found;
+    }
+
+    private static boolean readPart(JsonParser parser, StringBuilder text) throws IOException {
+        boolean found = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.VALUE_STRING && "text".equals(field)) {
+                // Copied straight from the parser's buffer, without an intermediate String
+                text.append(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                found = true;
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return found;
+    }
+
+    private static void skipRest(JsonParser parser, JsonToken end) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != end) {
+            parser.skipChildren();
+        }
+    }
+}
@@ -2,75 +2,482 @@ package com.agentic.riskai.ro.service;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 
+import com.agentic.riskai.ro.resilience.AimdLimiter;
+import com.agentic.riskai.ro.resilience.CircuitBreaker;
+import com.agentic.riskai.ro.resilience.CircuitBreakerOpenException;
+import com.agentic.riskai.ro.resilience.RetryPolicy;
+import com.agentic.riskai.ro.resilience.TokenBucket;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.JsonNode;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Gemini REST client on the JDK {@link HttpClient}. Connections are pooled and kept alive
+ * by the client; calls are sent asynchronously, so no thread is held while the model is
+ * generating.
+ *
+ * <p>Calls are guarded by a circuit breaker that fails fast while Gemini is unhealthy, an
+ * AIMD concurrency limit that shrinks when Gemini throttles or times out, and a token
+ * bucket. Calls that cannot start yet wait in a queue without blocking their callers; the
+ * queue holds at most {@code app.ai.gemini.limiter.max-queued} calls, more are rejected with
+ * {@link RejectedExecutionException}. A call that waited longer than
+ * {@code app.ai.gemini.limiter.queue-timeout}, or whose future is already complete, is dropped
+ * before it is sent and counts as a failure for the circuit breaker. Throttled (429) and unavailable (503) responses are retried with jittered backoff;
+ * streaming calls are not retried. Limiter, queue and breaker state are published as
+ * {@code gemini.*} metrics.
+ */
 @Slf4j
 @Service
 public class GeminiService {
-    
-    @Value("${spring.ai.google.genai.api-key:}")
-    private String apiKey;
-    
-    private final RestTemplate restTemplate;
+
+    private final String apiKey;
+    private final String baseUrl;
+    private final String model;
+    private final Duration readTimeout;
+    private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
-    
-    public GeminiService() {
-        this.restTemplate = new RestTemplate();
-        this.objectMapper = new ObjectMapper();
+    private final JsonFactory jsonFactory;
+    private final CompletionCache completionCache;
+    private final AimdLimiter concurrencyLimiter;
+    private final TokenBucket rateLimiter;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreaker circuitBreaker;
+    private final Queue<PendingCall> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final int maxQueued;
+    private final long queueTimeoutNanos;
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "gemini-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Timer latency;
+    private final Counter retries;
+    private final Counter rejected;
+    private final MeterRegistry meterRegistry;
+
+    public GeminiService(CompletionCache completionCache,
+                         AimdLimiter concurrencyLimiter,
+                         TokenBucket rateLimiter,
+                         RetryPolicy retryPolicy,
+                         CircuitBreaker circuitBreaker,
+                         MeterRegistry meterRegistry,
+                         ObjectMapper objectMapper,
+                         @Value("${spring.ai.google.genai.api-key:}") String apiKey,
+                         @Value("${app.ai.gemini.base-url:https://generativelanguage.googleapis.com/v1beta}") String baseUrl,
+                         @Value("${app.ai.gemini.model:gemini-2.5-pro}") String model,
+                         @Value("${app.ai.gemini.connect-timeout:5s}") Duration connectTimeout,
+                         @Value("${app.ai.gemini.read-timeout:120s}") Duration readTimeout,
+                         @Value("${app.ai.gemini.limiter.max-queued:256}") int maxQueued,
+                         @Value("${app.ai.gemini.limiter.queue-timeout:30s}") Duration queueTimeout) {
+        this.apiKey = apiKey;
+        this.baseUrl = baseUrl;
+        this.model = model;
+        this.readTimeout = readTimeout;
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(connectTimeout)
+            .build();
+        this.objectMapper = objectMapper;
+        this.jsonFactory = objectMapper.getFactory();
+        this.completionCache = completionCache;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.rateLimiter = rateLimiter;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker;
+        this.meterRegistry = meterRegistry;
+        this.maxQueued = maxQueued;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+
+        this.latency = Timer.builder("gemini.requests.latency").register(meterRegistry);
+        this.retries = meterRegistry.counter("gemini.requests.retries");
+        this.rejected = meterRegistry.counter("gemini.requests", "outcome", "rejected");
+        Gauge.builder("gemini.limiter.limit", concurrencyLimiter, AimdLimiter::limit).register(meterRegistry);
+        Gauge.builder("gemini.limiter.in-flight", concurrencyLimiter, AimdLimiter::inFlight).register(meterRegistry);
+        Gauge.builder("gemini.limiter.queued", queued, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("gemini.rate-limiter.tokens", rateLimiter, TokenBucket::availableTokens).register(meterRegistry);
+        Gauge.builder("gemini.circuit-breaker.state", circuitBreaker, breaker -> breaker.state().ordinal())
+            .description("0 = closed, 1 = open, 2 = half open")
+            .register(meterRegistry);
+        Gauge.builder("gemini.circuit-breaker.failure-rate", circuitBreaker, CircuitBreaker::failureRate)
+            .register(meterRegistry);
+
+        // Expires waiting calls even while nothing is dispatched, e.g. at a limit of 1
+        scheduler.scheduleWithFixedDelay(this::expireQueued, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
     }
-    
+
     public String generateContent(String prompt) {
-        
+        return generateContent(prompt, List.of());
+    }
+
+    /**
+     * Blocking variant of {@link #generateContentAsync(String, List)}.
+     *
+     * @throws GeminiApiException if Gemini answered with an error or without a candidate
+     * @throws CircuitBreakerOpenException if Gemini is failing and calls are short-circuited
+     */
+    public String generateContent(String prompt, List<?> contextIds) {
+        try {
+            return generateContentAsync(prompt, contextIds).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new GeminiApiException("Error calling Gemini API: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    public CompletableFuture<String> generateContentAsync(String prompt) {
+        return generateContentAsync(prompt, List.of());
+    }
+
+    /**
+     * Sends the prompt without blocking, unless the completion is cached. The future completes
+     * with the text of the first candidate, or exceptionally if the call fails, times out or
+     * is rejected by the circuit breaker.
+     *
+     * @param contextIds ids of the documents retrieved into the prompt, part of the cache key
+     */
+    public CompletableFuture<String> generateContentAsync(String prompt, List<?> contextIds) {
+        return generate(prompt, contextIds, null, Function.identity());
+    }
+
+    /**
+     * As {@link #generateContentAsync(String)}, completing with the completion run through
+     * {@code parser}. The completion is only cached once it parsed, so an answer that cannot
+     * be parsed is asked for again next time instead of failing until it expires.
+     */
+    public <T> CompletableFuture<T> generateContentAsync(String prompt, Function<String, T> parser) {
+        return generate(prompt, List.of(), null, parser);
+    }
+
+    /**
+     * Structured output: Gemini is constrained to answer with JSON matching {@code responseSchema},
+     * an OpenAPI-style schema object as documented for {@code generationConfig.responseSchema}.
+     * The JSON text is run through {@code parser} and cached only if that succeeds.
+     */
+    public <T> CompletableFuture<T> generateJsonAsync(String prompt, Map<String, Object> responseSchema,
+                                                      Function<String, T> parser) {
+        return generate(prompt, List.of(), responseSchema, parser);
+    }
+
+    private <T> CompletableFuture<T> generate(String prompt, List<?> contextIds, Map<String, Object> responseSchema,
+                                              Function<String, T> parser) {
+
         if (apiKey == null || apiKey.isEmpty()) {
-            return "Mock response: Gemini API key not configured. Please set GEMINI_API_KEY environment variable.";
+            return CompletableFuture.completedFuture(
+                "Mock response: Gemini API key not configured. Please set GEMINI_API_KEY environment variable.")
+                .thenApply(parser);
         }
-        
+
+        // A schema-bound answer must not be served to a free-text request, or the other way round
+        String cacheKey = CompletionCache.key(responseSchema == null ? model : model + "+json", prompt, contextIds);
+        Optional<String> cached = completionCache.get(cacheKey);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached.get()).thenApply(parser)
+                .whenComplete((value, error) -> {
+                    if (error != null) {
+                        // Cached by an older version or another parser, do not serve it again
+                        completionCache.invalidate(cacheKey);
+                    }
+                });
+        }
+
+        HttpRequest request;
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Content-Type", "application/json");
-            
-            Map<String, Object> requestBody = new HashMap<>();
-            Map<String, Object> content = new HashMap<>();
-            Map<String, Object> part = new HashMap<>();
-            part.put("text", prompt);
-            
-            content.put("parts", Arrays.asList(part));
-            requestBody.put("contents", Arrays.asList(content));
-            
-            // String url = "https://generativelanguage.googleapis.com/v1beta/models/gemini-pro:generateContent?key=" + apiKey;
-            // String url = "https://generativelanguage.googleapis.com/v1/models/gemini-1.5-pro:generateContent?key=" + apiKey;
-            // String url = "https://generativelanguage.googleapis.com/v1/models/gemini-1.5-flash:generateContent?key=" + apiKey;
-            // String url = "https://generativelanguage.googleapis.com/v1beta/models/gemini-pro:generateContent?key=" + apiKey;
-            String url = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-pro:generateContent?key=" + apiKey;
-            
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, entity, String.class);
-            
-            JsonNode root = objectMapper.readTree(response.getBody());
-            JsonNode candidates = root.path("candidates");
-            if (candidates.isArray() && candidates.size() > 0) {
-                JsonNode contentNode = candidates.get(0).path("content");
-                JsonNode parts = contentNode.path("parts");
-                if (parts.isArray() && parts.size() > 0) {
-                    return parts.get(0).path("text").asText();
-                }
+            request = buildRequest(prompt, "generateContent", responseSchema);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return send(request, HttpResponse.BodyHandlers.ofString(), true).thenApply(response -> {
+            GeminiResponseReader.Candidate candidate = extractCandidate(response);
+            T value = parser.apply(candidate.text());
+            if (candidate.finished()) {
+                completionCache.put(cacheKey, candidate.text());
             }
-            
-            return "No response generated from Gemini";
-            
+            return value;
+        });
+    }
+
+    /**
+     * Streams the completion through {@code streamGenerateContent}. Text is passed to
+     * {@code onText} chunk by chunk as Gemini produces it; the future completes with the
+     * full text. A cached completion is delivered as a single chunk.
+     */
+    public CompletableFuture<String> streamContent(String prompt, List<?> contextIds, Consumer<String> onText) {
+
+        if (apiKey == null || apiKey.isEmpty()) {
+            return generateContentAsync(prompt, contextIds).thenApply(text -> {
+                onText.accept(text);
+                return text;
+            });
+        }
+
+        String cacheKey = CompletionCache.key(model, prompt, contextIds);
+        Optional<String> cached = completionCache.get(cacheKey);
+        if (cached.isPresent()) {
+            onText.accept(cached.get());
+            return CompletableFuture.completedFuture(cached.get());
+        }
+
+        HttpRequest request;
+        try {
+            request = buildRequest(prompt, "streamGenerateContent", null);
         } catch (Exception e) {
-            return "Error calling Gemini API: " + e.getMessage();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        GeminiStreamSubscriber subscriber = new GeminiStreamSubscriber(jsonFactory, onText);
+        return send(request, HttpResponse.BodyHandlers.fromLineSubscriber(subscriber), false)
+            .thenCompose(response -> {
+                if (response.statusCode() / 100 != 2) {
+                    throw new GeminiApiException(response.statusCode(), "streamGenerateContent failed");
+                }
+                return subscriber.result();
+            })
+            .thenApply(text -> {
+                // A stream that ended without STOP was cut off or blocked, do not replay it
+                if (!text.isEmpty() && subscriber.finished()) {
+                    completionCache.put(cacheKey, text);
+                }
+                return text;
+            });
+    }
+
+    private HttpRequest buildRequest(String prompt, String method, Map<String, Object> responseSchema) throws Exception {
+        Map<String, Object> requestBody = new HashMap<>();
+        Map<String, Object> content = new HashMap<>();
+        Map<String, Object> part = new HashMap<>();
+        part.put("text", prompt);
+
+        content.put("parts", Arrays.asList(part));
+        requestBody.put("contents", Arrays.asList(content));
+        if (responseSchema != null) {
+            requestBody.put("generationConfig", Map.of(
+                "responseMimeType", "application/json",
+                "responseSchema", responseSchema));
+        }
+
+        String query = method.startsWith("stream") ? "?alt=sse&key=" : "?key=";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/models/" + model + ":" + method + query + apiKey))
+            .timeout(readTimeout)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(requestBody)))
+            .build();
+    }
+
+    private GeminiResponseReader.Candidate extractCandidate(HttpResponse<String> response) {
+        if (response.statusCode() / 100 != 2) {
+            throw new GeminiApiException(response.statusCode(), response.body());
+        }
+        GeminiResponseReader.Candidate candidate;
+        try {
+            candidate = GeminiResponseReader.firstCandidate(jsonFactory, response.body());
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+        if (candidate != null && candidate.text() != null) {
+            return candidate;
+        }
+        throw new GeminiApiException("No response generated from Gemini: " + response.body(), null);
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler,
+                                                        boolean retry) {
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        attempt(request, bodyHandler, retry ? retryPolicy.maxAttempts() : 1, 1, result);
+        return result;
+    }
+
+    private <T> void attempt(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, int maxAttempts, int attempt,
+                             CompletableFuture<HttpResponse<T>> result) {
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            meterRegistry.counter("gemini.requests", "outcome", "queue-full").increment();
+            result.completeExceptionally(new RejectedExecutionException(
+                "Gemini call queue is full (" + maxQueued + " calls)"));
+            return;
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            queued.decrementAndGet();
+            rejected.increment();
+            result.completeExceptionally(new CircuitBreakerOpenException("Gemini circuit breaker is open"));
+            return;
+        }
+        pending.add(new PendingCall(result, System.nanoTime(), () -> {
+            long start = System.nanoTime();
+            httpClient.sendAsync(request, bodyHandler).whenComplete((response, error) -> {
+                latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                String outcome = record(response, error);
+                meterRegistry.counter("gemini.requests", "outcome", outcome).increment();
+                dispatch();
+
+                if (error != null) {
+                    result.completeExceptionally(error);
+                    return;
+                }
+                long retryAfter = retryAfterNanos(response);
+                if (attempt < maxAttempts && retryPolicy.shouldRetry(attempt, response.statusCode(), retryAfter)) {
+                    long delay = retryPolicy.backoffNanos(attempt, retryAfter);
+                    log.debug("Gemini returned HTTP {}, retrying in {} ms", response.statusCode(), delay / 1_000_000);
+                    retries.increment();
+                    scheduler.schedule(() -> attempt(request, bodyHandler, maxAttempts, attempt + 1, result),
+                        delay, TimeUnit.NANOSECONDS);
+                    return;
+                }
+                result.complete(response);
+            });
+        }));
+        dispatch();
+    }
+
+    /**
+     * Reports the outcome to the limiter and the circuit breaker.
+     */
+    private String record(HttpResponse<?> response, Throwable error) {
+        if (error != null) {
+            if (error instanceof HttpTimeoutException || error.getCause() instanceof HttpTimeoutException) {
+                concurrencyLimiter.onDropped();
+                circuitBreaker.onFailure();
+                return "timeout";
+            }
+            concurrencyLimiter.onIgnored();
+            circuitBreaker.onFailure();
+            return "error";
+        }
+        int status = response.statusCode();
+        if (status == 429 || status == 503) {
+            concurrencyLimiter.onDropped();
+            circuitBreaker.onFailure();
+            return "throttled";
+        }
+        if (status >= 500) {
+            concurrencyLimiter.onIgnored();
+            circuitBreaker.onFailure();
+            return "error";
+        }
+        concurrencyLimiter.onSuccess();
+        circuitBreaker.onSuccess();
+        return status / 100 == 2 ? "success" : "client-error";
+    }
+
+    private static long retryAfterNanos(HttpResponse<?> response) {
+        try {
+            return response.headers().firstValue("Retry-After")
+                .map(value -> TimeUnit.SECONDS.toNanos(Long.parseLong(value.trim())))
+                .orElse(0L);
+        } catch (NumberFormatException e) {
+            // HTTP-date form, fall back to our own backoff
+            return 0;
+        }
+    }
+
+    /**
+     * Starts queued calls while the concurrency limit and the rate limit allow.
+     */
+    private void dispatch() {
+        while (!pending.isEmpty() && concurrencyLimiter.tryAcquire()) {
+            long waitNanos = rateLimiter.tryAcquire();
+            if (waitNanos > 0) {
+                concurrencyLimiter.release();
+                if (dispatchScheduled.compareAndSet(false, true)) {
+                    scheduler.schedule(() -> {
+                        dispatchScheduled.set(false);
+                        dispatch();
+                    }, waitNanos, TimeUnit.NANOSECONDS);
+                }
+                return;
+            }
+            PendingCall next = pollLive();
+            if (next == null) {
+                concurrencyLimiter.release();
+                rateLimiter.refund();
+            } else {
+                next.start().run();
+            }
+        }
+    }
+
+    /**
+     * The next queued call that is still wanted; expired ones are dropped on the way.
+     */
+    private PendingCall pollLive() {
+        PendingCall next;
+        while ((next = pending.poll()) != null) {
+            queued.decrementAndGet();
+            if (!drop(next, System.nanoTime())) {
+                return next;
+            }
+        }
+        return null;
+    }
+
+    private void expireQueued() {
+        long now = System.nanoTime();
+        for (PendingCall call : pending) {
+            if (call.expired(now, queueTimeoutNanos) && pending.remove(call)) {
+                queued.decrementAndGet();
+                drop(call, now);
+            }
+        }
+    }
+
+    /**
+     * Fails {@code call} if nobody is waiting for it any more or it waited too long.
+     *
+     * @return true if the call was dropped
+     */
+    private boolean drop(PendingCall call, long now) {
+        if (!call.expired(now, queueTimeoutNanos)) {
+            return false;
+        }
+        // It held a breaker permission; waiting this long means Gemini is not keeping up
+        circuitBreaker.onFailure();
+        meterRegistry.counter("gemini.requests", "outcome", "queue-timeout").increment();
+        call.result().completeExceptionally(new TimeoutException(
+            "Gemini call waited more than " + TimeUnit.NANOSECONDS.toMillis(queueTimeoutNanos) + " ms to be sent"));
+        return true;
+    }
+
+    private record PendingCall(CompletableFuture<?> result, long queuedAt, Runnable start) {
+
+        boolean expired(long now, long timeoutNanos) {
+            return result.isDone() || now - queuedAt > timeoutNanos;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,90 @@
+package com.agentic.riskai.ro.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * Consumes a {@code streamGenerateContent?alt=sse} response line by line. Each {@code data:}
+ * event is parsed by {@link GeminiResponseReader} and the text parts of the first candidate
+ * are passed on as soon as they arrive.
+ *
+ * <p>Lines are requested one at a time, after the previous one has been handed to the
+ * consumer, so a slow client slows down reading from Gemini instead of filling a buffer.
+ */
+class GeminiStreamSubscriber implements Flow.Subscriber<String> {
+
+    private static final String DATA_PREFIX = "data:";
+
+    private final JsonFactory jsonFactory;
+    private final Consumer<String> onText;
+    private final StringBuilder completion = new StringBuilder();
+    private final CompletableFuture<String> result = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+    private volatile String finishReason;
+
+    GeminiStreamSubscriber(JsonFactory jsonFactory, Consumer<String> onText) {
+        this.jsonFactory = jsonFactory;
+        this.onText = onText;
+    }
+
+    /**
+     * Completes with the full text once the stream ends.
+     */
+    CompletableFuture<String> result() {
+        return result;
+    }
+
+    /**
+     * True if the last chunk reported a natural end, so the text is not cut off.
+     */
+    boolean finished() {
+        return GeminiResponseReader.FINISHED.equals(finishReason);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(String line) {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            if (line.startsWith(DATA_PREFIX)) {
+                GeminiResponseReader.Candidate candidate =
+                    GeminiResponseReader.firstCandidate(jsonFactory, line.substring(DATA_PREFIX.length()));
+                if (candidate != null) {
+                    String text = candidate.text();
+                    if (text != null && !text.isEmpty()) {
+                        completion.append(text);
+                        onText.accept(text);
+                    }
+                    if (candidate.finishReason() != null) {
+                        finishReason = candidate.finishReason();
+                    }
+                }
+            }
+            subscription.request(1);
+        } catch (Exception e) {
+            // Client went away or Gemini sent something unreadable: stop reading the response
+            subscription.cancel();
+            result.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        result.completeExceptionally(error);
+    }
+
+    @Override
+    public void onComplete() {
+        result.complete(completion.toString());
+    }
+}
@@ -0,0 +1,80 @@
+package com.agentic.riskai.ro.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Prompt text with {@code {{name}}} placeholders, split once into literal parts and slots.
+ * Rendering appends the parts and values into a per-thread {@link StringBuilder}, so there is
+ * no format string to parse and no intermediate strings per call. Single braces, such as a
+ * JSON example in the prompt, are plain text.
+ */
+public final class PromptTemplate {
+
+    // Builders that grew past this are dropped after use instead of being kept per thread
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    private final String[] literals;
+    private final int[] slots;
+    private final int literalLength;
+
+    private PromptTemplate(String[] literals, int[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+        this.literalLength = Arrays.stream(literals).mapToInt(String::length).sum();
+    }
+
+    /**
+     * @param names the placeholders, in the order their values are passed to {@link #render}
+     */
+    public static PromptTemplate compile(String template, String... names) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int position = 0;
+        int open;
+        while ((open = template.indexOf("{{", position)) >= 0) {
+            int close = template.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at " + open);
+            }
+            String name = template.substring(open + 2, close).trim();
+            int slot = Arrays.asList(names).indexOf(name);
+            if (slot < 0) {
+                throw new IllegalArgumentException("Unknown placeholder {{" + name + "}}, expected one of "
+                    + Arrays.toString(names));
+            }
+            literals.add(template.substring(position, open));
+            slots.add(slot);
+            position = close + 2;
+        }
+        literals.add(template.substring(position));
+        return new PromptTemplate(literals.toArray(String[]::new), slots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public String render(CharSequence... values) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        try {
+            return appendTo(buffer, values).toString();
+        } finally {
+            if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+                BUFFER.remove();
+            }
+        }
+    }
+
+    public StringBuilder appendTo(StringBuilder out, CharSequence... values) {
+        int length = literalLength;
+        for (int slot : slots) {
+            length += values[slot].length();
+        }
+        out.ensureCapacity(out.length() + length);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]).append(values[slots[i]]);
+        }
+        return out.append(literals[slots.length]);
+    }
+}
@@ -3,36 +3,139 @@ package com.agentic.riskai.ro.service;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import lombok.extern.slf4j.Slf4j;
-import lombok.Data;
-import lombok.AllArgsConstructor;
+
+import com.agentic.riskai.ro.model.DocumentEmbedding;
+import com.agentic.riskai.ro.model.DocumentUploadRequest;
+import com.agentic.riskai.ro.rag.EmbeddingCache;
+import com.agentic.riskai.ro.rag.EmbeddingStore;
+import com.agentic.riskai.ro.rag.LexicalIndex;
+import com.agentic.riskai.ro.rag.MetadataFilter;
+import com.agentic.riskai.ro.rag.MetadataIndex;
+import com.agentic.riskai.ro.rag.ReciprocalRankFusion;
+import com.agentic.riskai.ro.rag.Reranker;
+import com.agentic.riskai.ro.rag.SearchHit;
+import com.agentic.riskai.ro.rag.StoredDocument;
+import com.agentic.riskai.ro.rag.TextChunker;
+import com.agentic.riskai.ro.rag.TopK;
+import com.agentic.riskai.ro.rag.VectorIndex;
+import com.agentic.riskai.ro.rag.VectorMath;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
 
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.time.LocalDateTime;
 
 @Slf4j
 @Service
 public class RagService {
     
+    public static final String PARENT_ID = "parentId";
+    public static final String CHUNK_INDEX = "chunkIndex";
+    public static final String CHUNK_START = "chunkStart";
+    public static final String CHUNK_END = "chunkEnd";
+    public static final String CONTENT_TYPE = "contentType";
+    
+    private static final String NO_CONTEXT = "No relevant documents found.";
+    private static final PromptTemplate RAG_PROMPT = PromptTemplate.compile("""
+        Based on the following context about risks and opportunities analysis:
+        
+        CONTEXT:
+        {{context}}
+        
+        USER QUERY: {{query}}
+        
+        Please provide a comprehensive analysis considering:
+        1. Risk/Opportunity identification
+        2. Impact assessment
+        3. Probability evaluation
+        4. Mitigation/Exploitation strategies
+        5. Priority classification
+        
+        Format the response in a structured way with clear sections.
+        """, "context", "query");
+    
     private final GeminiService geminiService;
-    private final List<DocumentEmbedding> documentEmbeddings = Collections.synchronizedList(new ArrayList<>());
+    private final EmbeddingStore embeddingStore;
+    private final EmbeddingCache embeddingCache;
+    private final VectorIndex vectorIndex;
+    private final LexicalIndex lexicalIndex;
+    private final MetadataIndex metadataIndex;
+    private final Reranker reranker;
+    private final TextChunker textChunker;
+    private final ContextBuilder contextBuilder;
+    private final int embeddingBatchSize;
+    private final boolean restored;
+    private final CompletableFuture<Void> indexesReady;
+    private final SingleFlight<String, float[]> embeddingFlights = new SingleFlight<>();
 
     @Value("${app.ai.use-mock:true}")
     private boolean useMockEmbeddings;
     
-    @Data
-    @AllArgsConstructor
-    private static class DocumentEmbedding {
-        private String content;
-        private String contentType;
-        private List<Double> embedding;
-        private Map<String, Object> metadata;
-        private LocalDateTime createdAt;
-    }
+    @Value("${app.rag.hybrid.enabled:true}")
+    private boolean hybridEnabled;
+    
+    @Value("${app.rag.hybrid.candidates:50}")
+    private int hybridCandidates;
+    
+    @Value("${app.rag.hybrid.rrf-k:60}")
+    private int rrfK;
+    
+    @Value("${app.rag.hybrid.prefilter:false}")
+    private boolean lexicalPrefilter;
     
-    public RagService(GeminiService geminiService) {
+    @Value("${app.rag.context.candidates:8}")
+    private int contextCandidates;
+    
+    public RagService(GeminiService geminiService, EmbeddingStore embeddingStore, EmbeddingCache embeddingCache,
+                      VectorIndex vectorIndex, LexicalIndex lexicalIndex, MetadataIndex metadataIndex,
+                      Reranker reranker, TextChunker textChunker, ContextBuilder contextBuilder,
+                      @Value("${app.rag.embedding.batch-size:64}") int embeddingBatchSize) {
+        if (embeddingCache.dimension() != embeddingStore.dimension()) {
+            throw new IllegalStateException("Embedding provider " + embeddingCache.modelId() + " produces "
+                + embeddingCache.dimension() + " dimensions but the store holds " + embeddingStore.dimension());
+        }
         this.geminiService = geminiService;
-        loadMockDocuments();
+        this.embeddingStore = embeddingStore;
+        this.embeddingCache = embeddingCache;
+        this.vectorIndex = vectorIndex;
+        this.lexicalIndex = lexicalIndex;
+        this.metadataIndex = metadataIndex;
+        this.reranker = reranker;
+        this.textChunker = textChunker;
+        this.contextBuilder = contextBuilder;
+        this.embeddingBatchSize = Math.max(1, embeddingBatchSize);
+        this.restored = embeddingStore.size() > 0;
+        if (restored) {
+            this.indexesReady = CompletableFuture.runAsync(this::indexRestoredDocuments, runnable -> {
+                Thread thread = new Thread(runnable, "rag-restore");
+                thread.setDaemon(true);
+                thread.start();
+            });
+        } else {
+            this.indexesReady = CompletableFuture.completedFuture(null);
+            loadMockDocuments();
+        }
+    }
+    
+    /**
+     * Rebuilds the vector, lexical and metadata indexes of a restored store. Runs off the
+     * startup path; searches and new chunks wait for it, since ids must be indexed in order.
+     */
+    private void indexRestoredDocuments() {
+        long start = System.nanoTime();
+        int documentCount = embeddingStore.size();
+        for (int id = 0; id < documentCount; id++) {
+            StoredDocument document = embeddingStore.document(id);
+            vectorIndex.add(id);
+            lexicalIndex.add(id, document.content());
+            indexMetadata(id, document.contentType(), document.metadata());
+        }
+        log.info("Indexed {} persisted documents for RAG in {} ms", documentCount,
+            (System.nanoTime() - start) / 1_000_000);
     }
     
     private void loadMockDocuments() {
@@ -49,103 +152,229 @@ public class RagService {
         log.info("Loaded {} mock documents for RAG", sampleDocs.length);
     }
     
-    public void storeDocument(String content, String contentType, Map<String, Object> metadata) {
-        try {
-            List<Double> embedding = generateMockEmbedding(content);
-            
-            DocumentEmbedding doc = new DocumentEmbedding(
-                content, contentType, embedding, metadata, LocalDateTime.now()
-            );
-            documentEmbeddings.add(doc);
-            log.info("Stored document with {} characters", content.length());
-        } catch (Exception e) {
-            log.warn("Using mock embeddings due to error: {}", e.getMessage());
-            // Store with mock embeddings anyway
-            DocumentEmbedding doc = new DocumentEmbedding(
-                content, contentType, generateMockEmbedding(content), metadata, LocalDateTime.now()
-            );
-            documentEmbeddings.add(doc);
+    /**
+     * Splits the content into overlapping chunks and stores each one as its own
+     * document. Every chunk's metadata points back to the parent document.
+     *
+     * @return the id shared by all chunks of this document
+     */
+    public String storeDocument(String content, String contentType, Map<String, Object> metadata) {
+        String parentId = UUID.randomUUID().toString();
+        ChunkBatch batch = new ChunkBatch();
+        int chunkCount = batch.addDocument(parentId, content, contentType, metadata);
+        batch.flush();
+        log.info("Stored document {} with {} characters in {} chunks", parentId, content.length(), chunkCount);
+        return parentId;
+    }
+    
+    /**
+     * Stores a batch of uploaded documents.
+     *
+     * @return the number of chunks stored
+     */
+    public int storeDocuments(List<DocumentUploadRequest> documents) {
+        ChunkBatch batch = new ChunkBatch();
+        int chunkCount = 0;
+        for (DocumentUploadRequest document : documents) {
+            chunkCount += batch.addDocument(UUID.randomUUID().toString(),
+                document.getContent(), document.getContentType(), document.getMetadata());
+        }
+        batch.flush();
+        log.debug("Stored {} documents in {} chunks", documents.size(), chunkCount);
+        return chunkCount;
+    }
+    
+    /**
+     * Collects chunks and embeds them {@code app.rag.embedding.batch-size} at a time, so a
+     * large document never has all of its vectors in memory at once.
+     */
+    private final class ChunkBatch {
+        
+        private final List<PendingChunk> pending = new ArrayList<>(embeddingBatchSize);
+        
+        int addDocument(String parentId, String content, String contentType, Map<String, Object> metadata) {
+            int chunkCount = 0;
+            for (TextChunker.Chunk chunk : textChunker.chunks(content)) {
+                pending.add(new PendingChunk(chunk, parentId, contentType, metadata));
+                if (pending.size() == embeddingBatchSize) {
+                    flush();
+                }
+                chunkCount++;
+            }
+            return chunkCount;
+        }
+        
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<CharSequence> texts = new ArrayList<>(pending.size());
+            for (PendingChunk chunk : pending) {
+                texts.add(chunk.chunk().text());
+            }
+            List<float[]> embeddings = embeddingCache.embedDocuments(texts);
+            indexesReady.join();
+            for (int i = 0; i < pending.size(); i++) {
+                storeChunk(pending.get(i), embeddings.get(i));
+            }
+            pending.clear();
         }
     }
     
-    private List<Double> generateMockEmbedding(String content) {
-        // Generate deterministic mock embeddings based on content hash
-        Random random = new Random(content.hashCode());
-        List<Double> embedding = new ArrayList<>();
-        for (int i = 0; i < 1536; i++) {
-            embedding.add(random.nextDouble() * 2 - 1); // Values between -1 and 1
+    private record PendingChunk(TextChunker.Chunk chunk, String parentId, String contentType,
+                                Map<String, Object> metadata) {
+    }
+    
+    private void storeChunk(PendingChunk pending, float[] embedding) {
+        TextChunker.Chunk chunk = pending.chunk();
+        Map<String, Object> chunkMetadata = pending.metadata() == null ? new HashMap<>() : new HashMap<>(pending.metadata());
+        chunkMetadata.put(PARENT_ID, pending.parentId());
+        chunkMetadata.put(CHUNK_INDEX, chunk.index());
+        chunkMetadata.put(CHUNK_START, chunk.start());
+        chunkMetadata.put(CHUNK_END, chunk.end());
+        
+        DocumentEmbedding doc = new DocumentEmbedding(
+            chunk.text().toString(), pending.contentType(), embedding, chunkMetadata, LocalDateTime.now()
+        );
+        int id = embeddingStore.add(doc);
+        vectorIndex.add(id);
+        lexicalIndex.add(id, chunk.text());
+        indexMetadata(id, pending.contentType(), chunkMetadata);
+    }
+    
+    private void indexMetadata(int id, String contentType, Map<String, Object> metadata) {
+        metadataIndex.add(id, CONTENT_TYPE, contentType);
+        if (metadata != null) {
+            metadata.forEach((key, value) -> {
+                // Chunk positions differ for every chunk, a bitmap per value would not pay off
+                if (!CHUNK_INDEX.equals(key) && !CHUNK_START.equals(key) && !CHUNK_END.equals(key)) {
+                    metadataIndex.add(id, key, value);
+                }
+            });
         }
-        return embedding;
     }
     
     public List<String> findRelevantDocuments(String query, int limit) {
-        if (documentEmbeddings.isEmpty()) {
+        return findRelevantDocuments(query, limit, MetadataFilter.NONE);
+    }
+    
+    /**
+     * As {@link #findRelevantDocuments(String, int)}, considering only documents that match
+     * {@code filter}.
+     */
+    public List<String> findRelevantDocuments(String query, int limit, MetadataFilter filter) {
+        return search(query, limit, filter).stream()
+            .map(hit -> embeddingStore.document(hit.id()).content())
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Retrieves {@link Reranker#candidates} hits and lets the reranker choose {@code limit}.
+     *
+     * <p>With a filter, the filter's bitmap is resolved first and only its documents are scored,
+     * lexically and by vector, so a search restricted to one project or tenant costs in
+     * proportion to that slice rather than to the whole store.
+     */
+    private List<SearchHit> search(String query, int limit, MetadataFilter filter) {
+        if (embeddingStore.size() == 0) {
             return Collections.emptyList();
         }
         
         try {
-            List<Double> queryEmbedding = generateMockEmbedding(query);
-            
-            // Calculate cosine similarity for each document
-            List<DocumentSimilarity> similarities = documentEmbeddings.stream()
-                .map(doc -> new DocumentSimilarity(doc, cosineSimilarity(queryEmbedding, doc.getEmbedding())))
-                .sorted((d1, d2) -> Double.compare(d2.similarity, d1.similarity)) // descending
-                .limit(limit)
-                .collect(Collectors.toList());
-            
-            return similarities.stream()
-                .map(ds -> ds.document.getContent())
-                .collect(Collectors.toList());
-            
+            indexesReady.join();
+            RoaringBitmap allowed = filter.isEmpty() ? null : metadataIndex.matching(filter);
+            if (allowed != null && allowed.isEmpty()) {
+                return Collections.emptyList();
+            }
+            float[] queryEmbedding = embeddingFlights.run(query, () -> embeddingCache.embedQuery(query));
+            List<SearchHit> candidates = retrieve(query, queryEmbedding, reranker.candidates(limit), allowed);
+            return reranker.rerank(query, queryEmbedding, candidates, limit);
         } catch (Exception e) {
             log.error("Error finding relevant documents", e);
             return Collections.emptyList();
         }
     }
     
-    private double cosineSimilarity(List<Double> vectorA, List<Double> vectorB) {
-        double dotProduct = 0.0;
-        double normA = 0.0;
-        double normB = 0.0;
-        
-        for (int i = 0; i < vectorA.size(); i++) {
-            dotProduct += vectorA.get(i) * vectorB.get(i);
-            normA += Math.pow(vectorA.get(i), 2);
-            normB += Math.pow(vectorB.get(i), 2);
+    private List<SearchHit> retrieve(String query, float[] queryEmbedding, int limit, RoaringBitmap allowed) {
+        if (!hybridEnabled) {
+            return allowed == null
+                ? vectorIndex.search(queryEmbedding, limit)
+                : scoreIds(allowed, limit, queryEmbedding);
         }
-        
-        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+        int depth = Math.max(limit, hybridCandidates);
+        List<SearchHit> lexical = lexicalIndex.search(query, depth, allowed == null ? null : allowed::contains);
+        List<SearchHit> semantic;
+        if (lexicalPrefilter && lexical.size() >= limit) {
+            semantic = scoreCandidates(lexical, queryEmbedding);
+        } else if (allowed != null) {
+            semantic = scoreIds(allowed, depth, queryEmbedding);
+        } else {
+            semantic = vectorIndex.search(queryEmbedding, depth);
+        }
+        return ReciprocalRankFusion.fuse(rrfK, limit, List.of(semantic, lexical));
     }
     
-    private record DocumentSimilarity(DocumentEmbedding document, double similarity) {}
+    /**
+     * Ranks only the lexical candidates by cosine similarity instead of searching every vector.
+     */
+    private List<SearchHit> scoreCandidates(List<SearchHit> candidates, float[] queryEmbedding) {
+        float[] unitQuery = VectorMath.normalize(queryEmbedding);
+        TopK topK = new TopK(candidates.size());
+        for (SearchHit candidate : candidates) {
+            topK.offer(candidate.id(), embeddingStore.dot(candidate.id(), unitQuery));
+        }
+        return topK.toSortedHits();
+    }
+    
+    private List<SearchHit> scoreIds(RoaringBitmap ids, int k, float[] queryEmbedding) {
+        float[] unitQuery = VectorMath.normalize(queryEmbedding);
+        TopK topK = new TopK(Math.min(k, ids.getCardinality()));
+        IntIterator it = ids.getIntIterator();
+        while (it.hasNext()) {
+            int id = it.next();
+            topK.offer(id, embeddingStore.dot(id, unitQuery));
+        }
+        return topK.toSortedHits();
+    }
     
     public String analyzeWithRAG(String userQuery) {
-        List<String> relevantDocs = findRelevantDocuments(userQuery, 3);    
-        String context = relevantDocs.isEmpty() ? "No relevant documents found." : 
-            String.join("\n\n", relevantDocs);
-        
-        String prompt = String.format("""
-            Based on the following context about risks and opportunities analysis:
-            
-            CONTEXT:
-            %s
-            
-            USER QUERY: %s
-            
-            Please provide a comprehensive analysis considering:
-            1. Risk/Opportunity identification
-            2. Impact assessment
-            3. Probability evaluation
-            4. Mitigation/Exploitation strategies
-            5. Priority classification
-            
-            Format the response in a structured way with clear sections.
-            """, context, userQuery);
-        
-        return geminiService.generateContent(prompt);
+        RagPrompt prompt = buildRagPrompt(userQuery);
+        return geminiService.generateContent(prompt.text(), prompt.contextIds());
+    }
+
+    public CompletableFuture<String> analyzeWithRAGAsync(String userQuery) {
+        RagPrompt prompt = buildRagPrompt(userQuery);
+        return geminiService.generateContentAsync(prompt.text(), prompt.contextIds());
+    }
+
+    /**
+     * Streams the analysis: {@code onText} receives the completion chunk by chunk.
+     */
+    public CompletableFuture<String> streamWithRAG(String userQuery, Consumer<String> onText) {
+        RagPrompt prompt = buildRagPrompt(userQuery);
+        return geminiService.streamContent(prompt.text(), prompt.contextIds(), onText);
+    }
+
+    private RagPrompt buildRagPrompt(String userQuery) {
+        List<SearchHit> hits = search(userQuery, contextCandidates, MetadataFilter.NONE);
+        ContextBuilder.PackedContext context = contextBuilder.pack(hits, embeddingStore::document);
+        CharSequence contextText = context.ids().isEmpty() ? NO_CONTEXT : context.text();
+        log.debug("Packed {} of {} retrieved chunks into ~{} context tokens",
+            context.ids().size(), hits.size(), context.tokens());
+        return new RagPrompt(RAG_PROMPT.render(contextText, userQuery), context.ids());
+    }
+    
+    private record RagPrompt(String text, List<Integer> contextIds) {
+    }
+    
+    /**
+     * True when the knowledge base was loaded from a persistent store, so seed data must not be ingested again.
+     */
+    public boolean isRestored() {
+        return restored;
     }
     
     public int getDocumentCount() {
-        return documentEmbeddings.size();
+        return embeddingStore.size();
     }
 }
\ No newline at end of file
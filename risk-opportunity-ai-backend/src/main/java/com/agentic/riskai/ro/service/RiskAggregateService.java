@@ -0,0 +1,226 @@
+package com.agentic.riskai.ro.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.agentic.riskai.ro.model.AnalysisType;
+import com.agentic.riskai.ro.model.PriorityLevel;
+import com.agentic.riskai.ro.model.RiskOpportunityEntity;
+import com.agentic.riskai.ro.model.RiskOpportunitySummary;
+import com.agentic.riskai.ro.model.RiskSummary;
+import com.agentic.riskai.ro.repository.RiskOpportunityRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Keeps the dashboard aggregates in memory: counts per type, priority and category, a risk
+ * score histogram per type and the top-K items per type. They are seeded from the database
+ * at startup and then updated by {@link RiskOpportunityService} after each committed write,
+ * so reading the summary never touches the database.
+ *
+ * <p>When an item leaves a top-K list and others of its type exist that are not held in
+ * memory, that list is reloaded with one indexed top-N query.
+ */
+@Slf4j
+@Service
+public class RiskAggregateService {
+
+    private static final int HISTOGRAM_BUCKETS = 10;
+    private static final String UNCATEGORIZED = "Uncategorized";
+    private static final Comparator<RiskOpportunitySummary> BY_SCORE_DESC =
+        Comparator.comparing(RiskOpportunitySummary::getRiskScore, Comparator.reverseOrder())
+            .thenComparing(RiskOpportunitySummary::getId, Comparator.reverseOrder());
+
+    private final RiskOpportunityRepository repository;
+    private final int topK;
+
+    // Guarded by this
+    private long total;
+    private final Map<AnalysisType, Long> countByType = new EnumMap<>(AnalysisType.class);
+    private final Map<PriorityLevel, Long> countByPriority = new EnumMap<>(PriorityLevel.class);
+    private final Map<String, Long> countByCategory = new HashMap<>();
+    private final Map<AnalysisType, long[]> histogram = new EnumMap<>(AnalysisType.class);
+    private final Map<AnalysisType, TreeSet<RiskOpportunitySummary>> top = new EnumMap<>(AnalysisType.class);
+
+    private volatile RiskSummary snapshot;
+
+    public RiskAggregateService(RiskOpportunityRepository repository,
+                                @Value("${app.analysis.summary.top-k:10}") int topK) {
+        this.repository = repository;
+        this.topK = topK;
+    }
+
+    @PostConstruct
+    public synchronized void seed() {
+        total = 0;
+        countByType.clear();
+        countByPriority.clear();
+        countByCategory.clear();
+        histogram.clear();
+        for (AnalysisType type : AnalysisType.values()) {
+            histogram.put(type, new long[HISTOGRAM_BUCKETS]);
+        }
+        for (Object[] group : repository.countGroups()) {
+            AnalysisType type = (AnalysisType) group[0];
+            long count = ((Number) group[4]).longValue();
+            Double scoreFloor = group[3] == null ? null : ((Number) group[3]).doubleValue();
+            count(type, (PriorityLevel) group[1], (String) group[2], scoreFloor, count);
+        }
+        for (AnalysisType type : AnalysisType.values()) {
+            reloadTop(type);
+        }
+        publish();
+        log.info("Seeded risk aggregates from {} stored analyses", total);
+    }
+
+    /**
+     * Current summary; rebuilt on every write, so this is a field read.
+     */
+    public RiskSummary getSummary() {
+        return snapshot;
+    }
+
+    public void onSaved(List<RiskOpportunityEntity> saved) {
+        // Ids and timestamps are only final once the insert is flushed, so read them after commit
+        afterCommit(() -> {
+            synchronized (this) {
+                for (RiskOpportunityEntity entity : saved) {
+                    apply(null, RiskOpportunitySummary.of(entity));
+                }
+                publish();
+            }
+        });
+    }
+
+    /**
+     * @param before the item as it was loaded, taken before it was modified
+     */
+    public void onUpdated(RiskOpportunitySummary before, RiskOpportunityEntity updated) {
+        afterCommit(() -> {
+            synchronized (this) {
+                apply(before, RiskOpportunitySummary.of(updated));
+                publish();
+            }
+        });
+    }
+
+    public void onDeleted(RiskOpportunitySummary deleted) {
+        afterCommit(() -> {
+            synchronized (this) {
+                apply(deleted, null);
+                publish();
+            }
+        });
+    }
+
+    private void apply(RiskOpportunitySummary removed, RiskOpportunitySummary added) {
+        AnalysisType reload = null;
+        if (removed != null) {
+            count(removed.getType(), removed.getPriority(), removed.getCategory(), removed.getRiskScore(), -1);
+            TreeSet<RiskOpportunitySummary> items = top.get(removed.getType());
+            boolean sameRank = added != null && added.getType() == removed.getType()
+                    && Objects.equals(added.getRiskScore(), removed.getRiskScore());
+            if (removed.getRiskScore() != null && items.remove(removed) && !sameRank
+                    && countByType.getOrDefault(removed.getType(), 0L) > items.size()) {
+                // Whatever moves up into the freed slot is not held in memory
+                reload = removed.getType();
+            }
+        }
+        if (added != null) {
+            count(added.getType(), added.getPriority(), added.getCategory(), added.getRiskScore(), 1);
+            if (added.getType() != reload) {
+                offer(added);
+            }
+        }
+        if (reload != null) {
+            reloadTop(reload);
+        }
+    }
+
+    private void count(AnalysisType type, PriorityLevel priority, String category, Double riskScore, long delta) {
+        total += delta;
+        countByType.merge(type, delta, Long::sum);
+        if (priority != null) {
+            countByPriority.merge(priority, delta, Long::sum);
+        }
+        String categoryKey = Objects.requireNonNullElse(category, UNCATEGORIZED);
+        if (countByCategory.merge(categoryKey, delta, Long::sum) <= 0) {
+            countByCategory.remove(categoryKey);
+        }
+        if (riskScore != null) {
+            int bucket = Math.max(0, Math.min(HISTOGRAM_BUCKETS - 1, (int) Math.floor(riskScore)));
+            histogram.get(type)[bucket] += delta;
+        }
+    }
+
+    private void offer(RiskOpportunitySummary item) {
+        if (item.getRiskScore() == null) {
+            return;
+        }
+        TreeSet<RiskOpportunitySummary> items = top.get(item.getType());
+        items.add(item);
+        if (items.size() > topK) {
+            items.pollLast();
+        }
+    }
+
+    private void reloadTop(AnalysisType type) {
+        TreeSet<RiskOpportunitySummary> items = new TreeSet<>(BY_SCORE_DESC);
+        for (RiskOpportunitySummary item : repository.findByTypeOrderByRiskScoreDesc(
+                type, Limit.of(topK), RiskOpportunitySummary.class)) {
+            if (item.getRiskScore() != null) {
+                items.add(item);
+            }
+        }
+        top.put(type, items);
+    }
+
+    private void publish() {
+        Map<AnalysisType, long[]> histogramCopy = new EnumMap<>(AnalysisType.class);
+        histogram.forEach((type, buckets) -> histogramCopy.put(type, buckets.clone()));
+        snapshot = new RiskSummary(
+            total,
+            Collections.unmodifiableMap(new EnumMap<>(countByType)),
+            Collections.unmodifiableMap(new EnumMap<>(countByPriority)),
+            Collections.unmodifiableMap(new HashMap<>(countByCategory)),
+            Collections.unmodifiableMap(histogramCopy),
+            List.copyOf(top.get(AnalysisType.RISK)),
+            List.copyOf(top.get(AnalysisType.OPPORTUNITY)),
+            LocalDateTime.now());
+    }
+
+    private void afterCommit(Runnable update) {
+        Runnable guarded = () -> {
+            try {
+                update.run();
+            } catch (RuntimeException e) {
+                log.warn("Could not update risk aggregates incrementally, reseeding: {}", e.getMessage());
+                seed();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guarded.run();
+                }
+            });
+        } else {
+            guarded.run();
+        }
+    }
+}
@@ -3,13 +3,15 @@ package com.agentic.riskai.ro.service;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.agentic.riskai.ro.model.RiskAnalysisResult;
 import com.agentic.riskai.ro.model.AnalysisType;
 import com.agentic.riskai.ro.model.RiskAnalysisResult;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
 @Slf4j
 @Service
 public class RiskOpportunityAIService {
@@ -17,15 +19,22 @@ public class RiskOpportunityAIService {
     private final GeminiService geminiService;
     private final RagService ragService;
     private final MockAIService mockAIService;
+    private final AnalysisResultParser analysisResultParser;
+
+    private final SingleFlight<String, RiskAnalysisResult> analysisFlights = new SingleFlight<>();
+    private final SingleFlight<String, String> ragFlights = new SingleFlight<>();
 
     @Value("${app.ai.use-mock:true}")
     private boolean useMockAI;
+
+    @Value("${app.ai.gemini.structured-output:true}")
+    private boolean structuredOutput;
     
-    private final String ANALYSIS_PROMPT = """
+    private static final PromptTemplate ANALYSIS_PROMPT = PromptTemplate.compile("""
         Analyze the following risk or opportunity description and provide a structured analysis.
         
-        Description: %s
-        Type: %s
+        Description: {{description}}
+        Type: {{type}}
         
         Please analyze and return a JSON response in this exact format:
         {
@@ -38,48 +47,115 @@ public class RiskOpportunityAIService {
             "exploitationPlan": "string (for opportunities)",
             "keyFactors": ["factor1", "factor2", "factor3"]
         }
-        """;
+        """, "description", "type");
     
     public RiskOpportunityAIService(GeminiService geminiService, 
                                    RagService ragService,
-                                   MockAIService mockAIService) {
+                                   MockAIService mockAIService,
+                                   AnalysisResultParser analysisResultParser) {
         this.geminiService = geminiService;
         this.ragService = ragService;
         this.mockAIService = mockAIService;
+        this.analysisResultParser = analysisResultParser;
     }
     
     public RiskAnalysisResult analyzeRiskOpportunity(String description, AnalysisType type) {
+        return analyzeRiskOpportunityAsync(description, type).join();
+    }
+    
+    /**
+     * Non-blocking variant of {@link #analyzeRiskOpportunity(String, AnalysisType)}. Concurrent
+     * requests for the same description and type share one Gemini call.
+     */
+    public CompletableFuture<RiskAnalysisResult> analyzeRiskOpportunityAsync(String description, AnalysisType type) {
+        return analyzeRiskOpportunityAsync(description, type, true);
+    }
+
+    /**
+     * @param fallbackToMock answer with a mock analysis if Gemini fails; batch and job processing
+     *                       pass {@code false}, so a failure is counted instead of a mock result
+     *                       being persisted as a real one
+     */
+    public CompletableFuture<RiskAnalysisResult> analyzeRiskOpportunityAsync(String description, AnalysisType type,
+                                                                              boolean fallbackToMock) {
         if (useMockAI) {
-            return mockAIService.analyzeRiskOpportunity(description, type);
+            return CompletableFuture.completedFuture(mockAIService.analyzeRiskOpportunity(description, type));
         }
-        
-        try {            
-            String prompt = String.format(ANALYSIS_PROMPT, description, type);
-            String aiResponse = geminiService.generateContent(prompt);
-            log.info("Gemini response -------------------------- : {}", aiResponse);
-            ObjectMapper mapper = new ObjectMapper();
-            return mapper.readValue(aiResponse, RiskAnalysisResult.class);
-            
-        } catch (Exception e) {
-            // Fallback to mock service if Gemini fails
+
+        String key = type + "\u0000" + CompletionCache.normalize(description);
+        CompletableFuture<RiskAnalysisResult> analysis = analysisFlights.execute(key, () -> {
+            String prompt = ANALYSIS_PROMPT.render(description, type.name());
+            // Parsed before caching, so an unparseable answer is not served from the cache
+            return structuredOutput
+                ? geminiService.generateJsonAsync(prompt, AnalysisResultParser.RESPONSE_SCHEMA, this::parseAnalysis)
+                : geminiService.generateContentAsync(prompt, this::parseAnalysis);
+        });
+        if (!fallbackToMock) {
+            return analysis;
+        }
+        // Fallback to mock service if Gemini fails
+        return analysis.exceptionally(e -> {
+            log.warn("Gemini analysis failed, using mock analysis: {}", e.getMessage());
             return mockAIService.analyzeRiskOpportunity(description, type);
+        });
+    }
+    
+    private RiskAnalysisResult parseAnalysis(String aiResponse) {
+        log.info("Gemini response -------------------------- : {}", aiResponse);
+        try {
+            return analysisResultParser.parse(aiResponse);
+        } catch (Exception e) {
+            throw new CompletionException(e);
         }
     }
     
     public String getAIAnalysisWithRAG(String query) {
+        return getAIAnalysisWithRAGAsync(query).join();
+    }
+
+    /**
+     * Non-blocking variant of {@link #getAIAnalysisWithRAG(String)}. Concurrent identical
+     * queries share one retrieval and Gemini call.
+     */
+    public CompletableFuture<String> getAIAnalysisWithRAGAsync(String query) {
+        return getAIAnalysisWithRAGAsync(query, true);
+    }
+
+    /**
+     * @param fallbackToMock answer with a mock analysis if Gemini fails
+     */
+    public CompletableFuture<String> getAIAnalysisWithRAGAsync(String query, boolean fallbackToMock) {
         log.info("RAG query -------------------------- : {}", query);
         log.info("Using mock AI -------------------------- : {}  ", useMockAI);
         if (useMockAI) {
-            return mockAIService.analyzeWithRAG(query);
+            return CompletableFuture.completedFuture(mockAIService.analyzeWithRAG(query));
         }
-        
-        try {
-            String response = ragService.analyzeWithRAG(query);
-            log.info("RAG response -------------------------- : {}", response);
-            return response;
-        } catch (Exception e) {
-            // Fallback to mock service if Gemini fails
-            return mockAIService.analyzeWithRAG(query);
+
+        CompletableFuture<String> analysis = ragFlights.execute(CompletionCache.normalize(query),
+            () -> ragService.analyzeWithRAGAsync(query)
+                .thenApply(response -> {
+                    log.info("RAG response -------------------------- : {}", response);
+                    return response;
+                }));
+        if (!fallbackToMock) {
+            return analysis;
         }
+        // Fallback to mock service if Gemini fails
+        return analysis.exceptionally(e -> mockAIService.analyzeWithRAG(query));
+    }
+
+    /**
+     * Streaming variant of {@link #getAIAnalysisWithRAG(String)}: {@code onText} receives the
+     * analysis chunk by chunk while Gemini generates it. Streams are not coalesced.
+     */
+    public CompletableFuture<String> streamAIAnalysisWithRAG(String query, Consumer<String> onText) {
+        log.info("RAG stream query -------------------------- : {}", query);
+        if (useMockAI) {
+            String response = mockAIService.analyzeWithRAG(query);
+            onText.accept(response);
+            return CompletableFuture.completedFuture(response);
+        }
+
+        return ragService.streamWithRAG(query, onText);
     }
-}
\ No newline at end of file
+}
@@ -3,12 +3,21 @@ package com.agentic.riskai.ro.service;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import com.agentic.riskai.ro.model.AnalysisRequest;
 import com.agentic.riskai.ro.model.RiskOpportunityEntity;
 import com.agentic.riskai.ro.model.AnalysisType;
+import com.agentic.riskai.ro.model.KeysetPage;
 import com.agentic.riskai.ro.model.PriorityLevel;
 import com.agentic.riskai.ro.repository.RiskOpportunityRepository;
 import com.agentic.riskai.ro.model.RiskAnalysisResult;
+import com.agentic.riskai.ro.model.RiskOpportunitySummary;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,8 +28,39 @@ public class RiskOpportunityService {
     @Autowired
     private RiskOpportunityRepository repository;
     
+    @Autowired
+    private RiskAggregateService aggregates;
+    
+    @Value("${app.analysis.query.max-page-size:200}")
+    private int maxPageSize;
+    
     public RiskOpportunityEntity saveAnalysis(String title, String description, 
                                             AnalysisType type, RiskAnalysisResult aiResult) {
+        RiskOpportunityEntity saved = repository.save(toEntity(title, description, type, aiResult));
+        aggregates.onSaved(List.of(saved));
+        return saved;
+    }
+    
+    /**
+     * Persists a batch of analyses in one transaction; with {@code hibernate.jdbc.batch_size}
+     * the inserts go to the database as JDBC batches.
+     */
+    public List<RiskOpportunityEntity> saveAnalyses(List<AnalysisRequest> requests, List<RiskAnalysisResult> aiResults) {
+        if (requests.size() != aiResults.size()) {
+            throw new IllegalArgumentException("Got " + requests.size() + " requests but " + aiResults.size() + " results");
+        }
+        List<RiskOpportunityEntity> entities = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            AnalysisRequest request = requests.get(i);
+            entities.add(toEntity(request.getTitle(), request.getDescription(), request.getType(), aiResults.get(i)));
+        }
+        List<RiskOpportunityEntity> saved = repository.saveAll(entities);
+        aggregates.onSaved(saved);
+        return saved;
+    }
+    
+    private RiskOpportunityEntity toEntity(String title, String description, 
+                                           AnalysisType type, RiskAnalysisResult aiResult) {
         
         // Calculate risk score
         Double riskScore = aiResult.getImpactScore() * aiResult.getProbability();
@@ -41,12 +81,42 @@ public class RiskOpportunityService {
         entity.setMitigationStrategy(aiResult.getMitigationStrategy());
         entity.setExploitationPlan(aiResult.getExploitationPlan());
         
-        return repository.save(entity);
+        return entity;
+    }
+    
+    /**
+     * One page of summaries, newest first, optionally restricted to one type.
+     */
+    @Transactional(readOnly = true)
+    public Page<RiskOpportunitySummary> findPage(AnalysisType type, int page, int size) {
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), pageSize(size),
+                Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+        return type == null
+                ? repository.findAllBy(pageRequest, RiskOpportunitySummary.class)
+                : repository.findByType(type, pageRequest, RiskOpportunitySummary.class);
+    }
+    
+    /**
+     * Keyset-paginated summaries, newest id first. Unlike {@link #findPage} the cost of a page
+     * does not grow with its position, and rows inserted meanwhile do not shift the pages.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<RiskOpportunitySummary> findAfter(Long afterId, int size) {
+        Limit limit = Limit.of(pageSize(size));
+        List<RiskOpportunitySummary> items = afterId == null
+                ? repository.findAllByOrderByIdDesc(limit, RiskOpportunitySummary.class)
+                : repository.findByIdLessThanOrderByIdDesc(afterId, limit, RiskOpportunitySummary.class);
+        Long nextAfterId = items.size() < pageSize(size) ? null : items.get(items.size() - 1).getId();
+        return new KeysetPage<>(items, nextAfterId);
     }
     
     @Transactional(readOnly = true)
-    public List<RiskOpportunityEntity> findAll() {
-        return repository.findAll();
+    public List<RiskOpportunitySummary> findTopSummaries(AnalysisType type, int limit) {
+        return repository.findByTypeOrderByRiskScoreDesc(type, Limit.of(pageSize(limit)), RiskOpportunitySummary.class);
+    }
+    
+    private int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, maxPageSize));
     }
     
     @Transactional(readOnly = true)
@@ -77,53 +147,50 @@ public class RiskOpportunityService {
     public RiskOpportunityEntity updateMitigationStrategy(Long id, String mitigationStrategy) {
         RiskOpportunityEntity entity = repository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Risk/Opportunity not found with id: " + id));
+        RiskOpportunitySummary before = RiskOpportunitySummary.of(entity);
         
         entity.setMitigationStrategy(mitigationStrategy);
-        return repository.save(entity);
+        RiskOpportunityEntity saved = repository.save(entity);
+        aggregates.onUpdated(before, saved);
+        return saved;
     }
     
     public RiskOpportunityEntity updateExploitationPlan(Long id, String exploitationPlan) {
         RiskOpportunityEntity entity = repository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Risk/Opportunity not found with id: " + id));
+        RiskOpportunitySummary before = RiskOpportunitySummary.of(entity);
         
         entity.setExploitationPlan(exploitationPlan);
-        return repository.save(entity);
+        RiskOpportunityEntity saved = repository.save(entity);
+        aggregates.onUpdated(before, saved);
+        return saved;
     }
     
     public Boolean deleteById(Long id) {
-        if (repository.existsById(id)) {
-            repository.deleteById(id);
-            return true;
-        } else {
-            throw new RuntimeException("Risk/Opportunity not found with id: " + id);            
-        }
+        RiskOpportunityEntity entity = repository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Risk/Opportunity not found with id: " + id));
+        repository.delete(entity);
+        aggregates.onDeleted(RiskOpportunitySummary.of(entity));
+        return true;
     }
     
     @Transactional(readOnly = true)
     public long getTotalCount() {
-        return repository.count();
+        return aggregates.getSummary().getTotal();
     }
     
     @Transactional(readOnly = true)
     public long getCountByType(AnalysisType type) {
-        return repository.findByTypeOrderByCreatedAtDesc(type).size();
+        return aggregates.getSummary().getCountByType().getOrDefault(type, 0L);
     }
     
     @Transactional(readOnly = true)
     public List<RiskOpportunityEntity> findTopRisks(int limit) {
-        return repository.findAll().stream()
-                .filter(entity -> entity.getType() == AnalysisType.RISK)
-                .sorted((e1, e2) -> Double.compare(e2.getRiskScore(), e1.getRiskScore()))
-                .limit(limit)
-                .toList();
+        return repository.findByTypeOrderByRiskScoreDesc(AnalysisType.RISK, Limit.of(limit), RiskOpportunityEntity.class);
     }
     
     @Transactional(readOnly = true)
     public List<RiskOpportunityEntity> findTopOpportunities(int limit) {
-        return repository.findAll().stream()
-                .filter(entity -> entity.getType() == AnalysisType.OPPORTUNITY)
-                .sorted((e1, e2) -> Double.compare(e2.getRiskScore(), e1.getRiskScore()))
-                .limit(limit)
-                .toList();
+        return repository.findByTypeOrderByRiskScoreDesc(AnalysisType.OPPORTUNITY, Limit.of(limit), RiskOpportunityEntity.class);
     }
 }
\ No newline at end of file
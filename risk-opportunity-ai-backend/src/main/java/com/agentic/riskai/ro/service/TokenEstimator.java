@@ -0,0 +1,76 @@
+package com.agentic.riskai.ro.service;
+
+/**
+ * Estimates how many model tokens a text costs without a vocabulary: a run of letters counts
+ * one token per six letters (rounded up), a run of digits one per three, every other
+ * non-space character one, and whitespace nothing. Close enough to English BPE counts to
+ * keep prompts inside a budget, and a single pass over the text.
+ */
+public final class TokenEstimator {
+
+    private static final int LETTERS_PER_TOKEN = 6;
+    private static final int DIGITS_PER_TOKEN = 3;
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(CharSequence text) {
+        return scan(text, 0, text.length(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Length of the longest prefix of {@code text} costing at most {@code maxTokens}, cut
+     * between words where possible.
+     */
+    public static int prefixLength(CharSequence text, int maxTokens) {
+        if (maxTokens <= 0) {
+            return 0;
+        }
+        int end = -scan(text, 0, text.length(), maxTokens) - 1;
+        if (end < 0) {
+            return text.length();
+        }
+        int cut = end;
+        while (cut > 0 && !Character.isWhitespace(text.charAt(cut - 1))) {
+            cut--;
+        }
+        return cut > 0 ? cut : end;
+    }
+
+    /**
+     * Counts tokens in {@code [from, to)}. Returns the count, or {@code -(index + 1)} of the
+     * first character that would take the count past {@code maxTokens}.
+     */
+    private static int scan(CharSequence text, int from, int to, int maxTokens) {
+        int tokens = 0;
+        int i = from;
+        while (i < to) {
+            char c = text.charAt(i);
+            int start = i;
+            int perToken;
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            } else if (Character.isLetter(c)) {
+                while (i < to && Character.isLetter(text.charAt(i))) {
+                    i++;
+                }
+                perToken = LETTERS_PER_TOKEN;
+            } else if (Character.isDigit(c)) {
+                while (i < to && Character.isDigit(text.charAt(i))) {
+                    i++;
+                }
+                perToken = DIGITS_PER_TOKEN;
+            } else {
+                i++;
+                perToken = 1;
+            }
+            int cost = (i - start + perToken - 1) / perToken;
+            if (tokens + cost > maxTokens) {
+                return -(start + Math.max(0, maxTokens - tokens) * perToken) - 1;
+            }
+            tokens += cost;
+        }
+        return tokens;
+    }
+}
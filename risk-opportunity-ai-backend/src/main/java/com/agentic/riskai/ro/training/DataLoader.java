@@ -21,6 +21,10 @@ public class DataLoader {
 
     @EventListener(ApplicationReadyEvent.class)
     public void loadSampleData() {
+        if (ragService.isRestored()) {
+            log.info("RAG knowledge base restored with {} documents, skipping sample data", ragService.getDocumentCount());
+            return;
+        }
         log.info("Loading sample risk/opportunity documents for RAG...");
 
         // Sample risk management documents
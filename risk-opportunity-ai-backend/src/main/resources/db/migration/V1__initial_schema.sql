@@ -0,0 +1,50 @@
+-- Schema for RiskOpportunityEntity and AnalysisJobEntity. Hibernate no longer creates
+-- tables (ddl-auto: none); schema changes go into a new V<n>__*.sql file.
+
+create sequence risk_opportunity_seq start with 1 increment by 50;
+
+create table risk_opportunities (
+    id                  bigint not null,
+    type                varchar(32),
+    title               varchar(255),
+    description         varchar(255),
+    ai_analysis         varchar(2000),
+    category            varchar(255),
+    impact_score        double precision,
+    probability         double precision,
+    risk_score          double precision,
+    priority            varchar(32),
+    mitigation_strategy varchar(255),
+    exploitation_plan   varchar(255),
+    created_at          timestamp(6),
+    updated_at          timestamp(6),
+    primary key (id)
+);
+
+-- Top-N by type and the priority finders: equality on the first column, rows already in
+-- the descending order the queries ask for
+create index idx_risk_opportunities_type_score on risk_opportunities (type, risk_score desc);
+create index idx_risk_opportunities_priority_score on risk_opportunities (priority, risk_score desc);
+-- findByTypeOrderByCreatedAtDesc and the paged listing filtered by type
+create index idx_risk_opportunities_type_created on risk_opportunities (type, created_at desc);
+
+create table analysis_jobs (
+    id           varchar(255) not null,
+    kind         varchar(32),
+    status       varchar(32),
+    priority     integer not null,
+    title        varchar(255),
+    description  varchar(4000),
+    type         varchar(32),
+    callback_url varchar(255),
+    result_id    bigint,
+    result       text,
+    error        varchar(2000),
+    created_at   timestamp(6),
+    started_at   timestamp(6),
+    finished_at  timestamp(6),
+    primary key (id)
+);
+
+-- Resuming pending jobs at startup: findByStatusInOrderByCreatedAtAsc
+create index idx_analysis_jobs_status on analysis_jobs (status, created_at);
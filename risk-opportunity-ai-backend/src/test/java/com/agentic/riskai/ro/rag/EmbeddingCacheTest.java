@@ -0,0 +1,115 @@
+package com.agentic.riskai.ro.rag;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class EmbeddingCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private final CountingProvider provider = new CountingProvider(new HashingEmbeddingProvider(64));
+
+    @Test
+    void repeatedTextIsEmbeddedOnce() throws Exception {
+        try (EmbeddingCache cache = cache(false)) {
+            List<float[]> first = cache.embedDocuments(List.of("alpha", "beta", "alpha"));
+            List<float[]> second = cache.embedDocuments(List.of("beta", "gamma"));
+
+            assertSame(first.get(0), first.get(2));
+            assertSame(first.get(1), second.get(0));
+            assertArrayEquals(provider.delegate.embed("gamma"), second.get(1));
+            assertEquals(3, provider.texts.get());
+        }
+    }
+
+    @Test
+    void documentVectorsSurviveARestart() throws Exception {
+        try (EmbeddingCache cache = cache(true)) {
+            cache.embedDocuments(List.of("supplier delay", "currency risk"));
+            cache.embedQuery("only in memory");
+        }
+        assertEquals(3, provider.texts.get());
+
+        try (EmbeddingCache cache = cache(true)) {
+            List<float[]> vectors = cache.embedDocuments(List.of("currency risk", "supplier delay"));
+            assertArrayEquals(provider.delegate.embed("currency risk"), vectors.get(0));
+            assertArrayEquals(provider.delegate.embed("supplier delay"), vectors.get(1));
+            assertEquals(3, provider.texts.get());
+
+            cache.embedQuery("only in memory");
+            assertEquals(4, provider.texts.get());
+        }
+    }
+
+    @Test
+    void concurrentMissesAreAllAnswered() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (EmbeddingCache cache = cache(false)) {
+            List<Future<List<float[]>>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    List<String> texts = new ArrayList<>();
+                    for (int i = 0; i < 100; i++) {
+                        texts.add("text " + ((thread * 37 + i) % 300));
+                    }
+                    return cache.embedDocuments(texts);
+                }));
+            }
+            for (int t = 0; t < 8; t++) {
+                List<float[]> vectors = results.get(t).get();
+                for (int i = 0; i < 100; i++) {
+                    String text = "text " + ((t * 37 + i) % 300);
+                    assertArrayEquals(provider.delegate.embed(text), vectors.get(i));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private EmbeddingCache cache(boolean disk) {
+        return new EmbeddingCache(provider, new SimpleMeterRegistry(), true, 1000, disk, dir.toString(), 16);
+    }
+
+    private static class CountingProvider implements EmbeddingProvider {
+
+        private final EmbeddingProvider delegate;
+        private final AtomicInteger texts = new AtomicInteger();
+
+        CountingProvider(EmbeddingProvider delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String modelId() {
+            return delegate.modelId();
+        }
+
+        @Override
+        public int dimension() {
+            return delegate.dimension();
+        }
+
+        @Override
+        public float[] embed(CharSequence text) {
+            texts.incrementAndGet();
+            return delegate.embed(text);
+        }
+    }
+}
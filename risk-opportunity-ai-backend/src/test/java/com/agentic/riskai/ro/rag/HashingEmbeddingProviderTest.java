@@ -0,0 +1,68 @@
+package com.agentic.riskai.ro.rag;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashingEmbeddingProviderTest {
+
+    private final HashingEmbeddingProvider provider = new HashingEmbeddingProvider(256);
+
+    @Test
+    void vectorsAreDeterministicUnitLength() {
+        float[] first = provider.embed("Supplier delays threaten the delivery schedule");
+        float[] second = provider.embed(new StringBuilder("Supplier delays threaten the delivery schedule"));
+
+        assertArrayEquals(first, second);
+        assertEquals(256, first.length);
+        assertEquals(1.0, VectorMath.norm(first), 1e-5);
+        assertEquals(0.0, VectorMath.norm(provider.embed("  the of ... ")), 0.0);
+    }
+
+    @Test
+    void queryIsClosestToTheDocumentAboutTheSameTopic() {
+        List<String> documents = List.of(
+            "Risk Management: Identify, assess, and control threats to organization's capital and earnings.",
+            "Opportunity Management: Recognize and exploit positive uncertainties that can benefit projects.",
+            "Mitigation: Reduce probability or impact of negative risks through preventive actions.",
+            "Exploitation: Enhance positive risks by increasing probability or maximizing benefits.");
+        List<float[]> vectors = provider.embedAll(documents);
+
+        assertEquals(2, nearest(vectors, "How can we mitigate and reduce the impact of a negative risk?"));
+        assertEquals(1, nearest(vectors, "recognizing opportunities that benefit our projects"));
+        assertEquals(0, nearest(vectors, "controlling threats to capital"));
+    }
+
+    @Test
+    void inflectionsShareTrigrams() {
+        float[] mitigation = provider.embed("mitigation");
+
+        assertTrue(dot(mitigation, provider.embed("mitigate")) > dot(mitigation, provider.embed("exploitation")));
+    }
+
+    private int nearest(List<float[]> vectors, String query) {
+        float[] queryVector = provider.embed(query);
+        int best = -1;
+        float bestScore = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < vectors.size(); i++) {
+            float score = dot(vectors.get(i), queryVector);
+            if (score > bestScore) {
+                bestScore = score;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
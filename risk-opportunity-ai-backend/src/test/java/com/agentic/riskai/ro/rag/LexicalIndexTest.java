@@ -0,0 +1,54 @@
+package com.agentic.riskai.ro.rag;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LexicalIndexTest {
+
+    private final LexicalIndex index = new LexicalIndex(1.2f, 0.75f);
+
+    @Test
+    void rareTermsOutrankCommonOnes() {
+        index.add(0, "Supplier delays threaten the delivery schedule");
+        index.add(1, "Supplier Acme Corp missed the ISO 27001 audit");
+        index.add(2, "The supplier market offers new opportunities");
+
+        List<SearchHit> hits = index.search("acme supplier", 10);
+        assertEquals(3, hits.size());
+        assertEquals(1, hits.get(0).id());
+
+        assertEquals(List.of(1), ids(index.search("ISO-27001", 10)));
+        assertTrue(index.search("currency", 10).isEmpty());
+    }
+
+    @Test
+    void idsArrivingOutOfOrderAreIndexed() {
+        for (int id : new int[] {3, 0, 200, 2, 1, 150}) {
+            index.add(id, "risk item " + id);
+        }
+
+        assertEquals(6, index.size());
+        assertEquals(6, index.search("risk", 10).size());
+        assertEquals(List.of(150), ids(index.search("150", 10)));
+        assertEquals(List.of(0), ids(index.search("0", 10)));
+    }
+
+    @Test
+    void fusionFavoursDocumentsRankedByBoth() {
+        List<SearchHit> vector = List.of(new SearchHit(7, 0.9f), new SearchHit(3, 0.8f), new SearchHit(5, 0.7f));
+        List<SearchHit> lexical = List.of(new SearchHit(5, 12f), new SearchHit(9, 4f));
+
+        List<SearchHit> fused = ReciprocalRankFusion.fuse(60, 2, List.of(vector, lexical));
+
+        assertEquals(List.of(5, 7), ids(fused));
+        assertEquals(1f / 63 + 1f / 61, fused.get(0).score(), 1e-6);
+    }
+
+    private static List<Integer> ids(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::id).toList();
+    }
+}
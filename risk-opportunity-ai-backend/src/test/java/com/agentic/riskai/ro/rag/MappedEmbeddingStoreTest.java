@@ -0,0 +1,125 @@
+package com.agentic.riskai.ro.rag;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.agentic.riskai.ro.model.DocumentEmbedding;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedEmbeddingStoreTest {
+
+    private static final int DIMENSION = 8;
+    private static final int SEGMENT_SIZE = 4;
+
+    @TempDir
+    Path directory;
+
+    private final List<MappedEmbeddingStore> stores = new ArrayList<>();
+
+    @AfterEach
+    void closeStores() {
+        // Oldest first, so the newest store's compaction is the one left in the directory
+        stores.forEach(MappedEmbeddingStore::close);
+    }
+
+    @Test
+    void documentsSurviveReopenThroughSealedSegmentsAndAppendLog() {
+        MappedEmbeddingStore store = open();
+        for (int i = 0; i < 10; i++) {
+            store.add(document(i));
+        }
+        // two sealed segments, two documents still only in the append log
+        assertTrue(Files.exists(directory.resolve("segment-00001.seg")));
+        assertTrue(Files.exists(directory.resolve("segment-00002.log")));
+
+        MappedEmbeddingStore reopened = open();
+        assertEquals(10, reopened.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("doc-" + i, reopened.document(i).content());
+            assertEquals(Map.of("n", i), reopened.document(i).metadata());
+            assertEquals(1f, reopened.dot(i, VectorMath.normalize(vector(i))), 1e-5);
+        }
+
+        ExactVectorIndex index = new ExactVectorIndex(reopened, 1);
+        try {
+            List<SearchHit> hits = index.search(vector(7), 1);
+            assertEquals(7, hits.get(0).id());
+        } finally {
+            index.shutdown();
+        }
+    }
+
+    @Test
+    void compactionFoldsLogIntoSegmentFileAndKeepsAppending() {
+        MappedEmbeddingStore store = open();
+        for (int i = 0; i < 6; i++) {
+            store.add(document(i));
+        }
+        store.close();
+        assertFalse(Files.exists(directory.resolve("segment-00001.log")));
+        assertTrue(Files.exists(directory.resolve("segment-00001.seg")));
+
+        MappedEmbeddingStore reopened = open();
+        assertEquals(6, reopened.size());
+        reopened.add(document(6));
+        reopened.add(document(7));
+        assertFalse(Files.exists(directory.resolve("segment-00001.log")));
+
+        MappedEmbeddingStore again = open();
+        assertEquals(8, again.size());
+        float[] copy = new float[DIMENSION];
+        again.copyVector(5, copy);
+        assertArrayEquals(VectorMath.normalize(vector(5)), copy, 1e-6f);
+        assertEquals("doc-7", again.document(7).content());
+    }
+
+    @Test
+    void storeWrittenByAnotherEmbeddingModelIsRefused() {
+        MappedEmbeddingStore store = open();
+        for (int i = 0; i < 6; i++) {
+            store.add(document(i));
+        }
+
+        EmbeddingProvider otherModel = new HashingEmbeddingProvider(DIMENSION) {
+            @Override
+            public String modelId() {
+                return "other-model/" + DIMENSION;
+            }
+        };
+        UncheckedIOException error = assertThrows(UncheckedIOException.class, () -> new MappedEmbeddingStore(
+            DIMENSION, SEGMENT_SIZE, directory.toString(), false, otherModel, new ScalarDotProduct()));
+        assertTrue(error.getCause().getMessage().contains("other-model/" + DIMENSION), error.getCause().getMessage());
+    }
+
+    private MappedEmbeddingStore open() {
+        MappedEmbeddingStore store = new MappedEmbeddingStore(DIMENSION, SEGMENT_SIZE, directory.toString(), false,
+            new HashingEmbeddingProvider(DIMENSION), new ScalarDotProduct());
+        stores.add(store);
+        return store;
+    }
+
+    private static DocumentEmbedding document(int i) {
+        return new DocumentEmbedding("doc-" + i, "text/plain", vector(i), Map.of("n", i), LocalDateTime.now());
+    }
+
+    private static float[] vector(int i) {
+        float[] vector = new float[DIMENSION];
+        vector[i % DIMENSION] = 1f;
+        vector[(i / DIMENSION + 3) % DIMENSION] += 0.5f;
+        return vector;
+    }
+}
@@ -0,0 +1,44 @@
+package com.agentic.riskai.ro.rag;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetadataIndexTest {
+
+    private final MetadataIndex index = new MetadataIndex();
+
+    @Test
+    void keysAreIntersectedAndValuesOfOneKeyUnited() {
+        index.add(0, "project", "apollo");
+        index.add(0, "contentType", "text/plain");
+        index.add(1, "project", "apollo");
+        index.add(1, "contentType", "application/pdf");
+        index.add(2, "project", "gemini");
+        index.add(2, "contentType", "text/plain");
+        index.add(3, "project", "mercury");
+        index.add(3, "tags", List.of("supplier", "audit"));
+
+        assertArrayEquals(new int[] {0, 1}, ids("project:apollo"));
+        assertArrayEquals(new int[] {0}, ids("project:apollo", "contentType:text/plain"));
+        assertArrayEquals(new int[] {0, 1, 2}, ids("project:apollo", "project:gemini"));
+        assertArrayEquals(new int[] {3}, ids("tags:audit"));
+        assertTrue(index.matching(MetadataFilter.parse(List.of("project:apollo", "tags:audit"))).isEmpty());
+        assertTrue(index.matching(MetadataFilter.parse(List.of("owner:nobody"))).isEmpty());
+    }
+
+    @Test
+    void malformedFiltersAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> MetadataFilter.parse(List.of("project")));
+        assertThrows(IllegalArgumentException.class, () -> MetadataFilter.parse(List.of(":apollo")));
+        assertTrue(MetadataFilter.parse(null).isEmpty());
+    }
+
+    private int[] ids(String... filters) {
+        return index.matching(MetadataFilter.parse(List.of(filters))).toArray();
+    }
+}
@@ -0,0 +1,53 @@
+package com.agentic.riskai.ro.rag;
+
+import org.junit.jupiter.api.Test;
+
+import com.agentic.riskai.ro.model.DocumentEmbedding;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MmrRerankerTest {
+
+    private final InMemoryEmbeddingStore store = new InMemoryEmbeddingStore(3, 8, new ScalarDotProduct());
+    private final float[] query = {1, 0, 0};
+
+    @Test
+    void nearDuplicatesArePassedOverForDiverseChunks() {
+        int first = add("supplier delay at the port", 1f, 0.2f, 0f);
+        int copy = add("supplier delay at the port again", 1f, 0.22f, 0f);
+        int other = add("currency exposure", 0.7f, 0f, 0.7f);
+        List<SearchHit> hits = List.of(new SearchHit(first, 3), new SearchHit(copy, 2), new SearchHit(other, 1));
+
+        assertEquals(List.of(first, other), ids(reranker(0.5f, 0f).rerank("delay", query, hits, 2)));
+        assertEquals(List.of(first, copy), ids(reranker(1f, 0f).rerank("delay", query, hits, 2)));
+        assertEquals(List.of(first, copy), ids(new PassThroughReranker().rerank("delay", query, hits, 2)));
+    }
+
+    @Test
+    void lexicalWeightRewardsQueryTerms() {
+        int vague = add("general outlook", 1f, 0.1f, 0f);
+        int exact = add("ISO 27001 audit finding", 0.9f, 0.3f, 0f);
+        List<SearchHit> hits = List.of(new SearchHit(vague, 2), new SearchHit(exact, 1));
+
+        assertEquals(vague, reranker(1f, 0f).rerank("ISO 27001 audit", query, hits, 1).get(0).id());
+        assertEquals(exact, reranker(1f, 0.5f).rerank("ISO 27001 audit", query, hits, 1).get(0).id());
+        assertThrows(IllegalArgumentException.class, () -> reranker(1.5f, 0f));
+    }
+
+    private MmrReranker reranker(float lambda, float lexicalWeight) {
+        return new MmrReranker(store, new ScalarDotProduct(), lambda, lexicalWeight, 20);
+    }
+
+    private int add(String content, float... vector) {
+        return store.add(new DocumentEmbedding(content, "text/plain", vector, Map.of(), LocalDateTime.now()));
+    }
+
+    private static List<Integer> ids(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::id).toList();
+    }
+}
@@ -0,0 +1,52 @@
+package com.agentic.riskai.ro.rag;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ScoringTest {
+
+    @Test
+    void topKMatchesFullSort() {
+        Random random = new Random(3);
+        List<SearchHit> all = new ArrayList<>();
+        TopK topK = new TopK(25);
+        for (int id = 0; id < 10_000; id++) {
+            float score = random.nextFloat();
+            all.add(new SearchHit(id, score));
+            topK.offer(id, score);
+        }
+        all.sort(SearchHit.BY_SCORE_DESC);
+
+        assertEquals(all.subList(0, 25), topK.toSortedHits());
+    }
+
+    @Test
+    void simdKernelMatchesScalarKernel() {
+        DotProduct scalar = new ScalarDotProduct();
+        DotProduct kernel = new ScoringConfig().dotProduct(true);
+        Random random = new Random(5);
+        for (int dimension : new int[] {1, 7, 64, 1536}) {
+            float[] a = new float[dimension];
+            float[] b = new float[dimension + 3];
+            for (int i = 0; i < b.length; i++) {
+                if (i < dimension) {
+                    a[i] = random.nextFloat() - 0.5f;
+                }
+                b[i] = random.nextFloat() - 0.5f;
+            }
+            assertEquals(scalar.dot(a, b, 3, dimension), kernel.dot(a, b, 3, dimension), 1e-3);
+
+            ByteBuffer mapped = ByteBuffer.allocate(b.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            mapped.asFloatBuffer().put(b);
+            assertEquals(scalar.dot(a, b, 3, dimension), scalar.dot(a, mapped, 3 * Float.BYTES, dimension), 1e-3);
+            assertEquals(scalar.dot(a, b, 3, dimension), kernel.dot(a, mapped, 3 * Float.BYTES, dimension), 1e-3);
+        }
+    }
+}
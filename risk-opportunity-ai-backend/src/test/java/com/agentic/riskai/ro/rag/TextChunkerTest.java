@@ -0,0 +1,52 @@
+package com.agentic.riskai.ro.rag;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextChunkerTest {
+
+    @Test
+    void shortTextIsOneChunk() {
+        List<TextChunker.Chunk> chunks = chunk(new TextChunker(1000, 200), "Supplier delay risk");
+
+        assertEquals(1, chunks.size());
+        assertEquals("Supplier delay risk", chunks.get(0).text().toString());
+    }
+
+    @Test
+    void longTextIsSplitIntoOverlappingWordAlignedChunks() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            text.append("word").append(i).append(' ');
+        }
+        TextChunker chunker = new TextChunker(100, 20);
+        List<TextChunker.Chunk> chunks = chunk(chunker, text);
+
+        assertTrue(chunks.size() > 1);
+        assertEquals(0, chunks.get(0).start());
+        assertEquals(text.length(), chunks.get(chunks.size() - 1).end());
+        for (int i = 0; i < chunks.size(); i++) {
+            TextChunker.Chunk chunk = chunks.get(i);
+            assertEquals(i, chunk.index());
+            assertTrue(chunk.end() - chunk.start() <= 100);
+            assertEquals(text.substring(chunk.start(), chunk.end()), chunk.text().toString());
+            assertTrue(chunk.start() == 0 || text.charAt(chunk.start() - 1) == ' ', "chunk starts mid-word");
+            if (i > 0) {
+                TextChunker.Chunk previous = chunks.get(i - 1);
+                assertTrue(chunk.start() < previous.end(), "chunks must overlap");
+                assertTrue(chunk.start() > previous.start(), "chunks must advance");
+            }
+        }
+    }
+
+    private static List<TextChunker.Chunk> chunk(TextChunker chunker, CharSequence text) {
+        List<TextChunker.Chunk> chunks = new ArrayList<>();
+        chunker.chunks(text).forEach(chunks::add);
+        return chunks;
+    }
+}
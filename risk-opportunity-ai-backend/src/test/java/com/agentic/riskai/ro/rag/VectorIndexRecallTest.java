@@ -0,0 +1,111 @@
+package com.agentic.riskai.ro.rag;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.agentic.riskai.ro.model.DocumentEmbedding;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares HNSW against the exact scan on synthetic clustered corpora.
+ * The 100k and 1M corpora only run with {@code -Drag.benchmark=true}.
+ */
+@Slf4j
+class VectorIndexRecallTest {
+
+    private static final int DIMENSION = 64;
+    private static final int CLUSTERS = 200;
+    private static final int QUERIES = 200;
+    private static final int K = 10;
+
+    @Test
+    void hnswRecallOnTenThousandVectors() {
+        Result result = compare(10_000, 16, 100, 64);
+        assertTrue(result.recall() >= 0.9, "recall@" + K + " too low: " + result);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "rag.benchmark", matches = "true")
+    void hnswRecallVersusLatencyOnLargeCorpora() {
+        for (int size : new int[] {10_000, 100_000, 1_000_000}) {
+            for (int efSearch : new int[] {32, 64, 128}) {
+                Result result = compare(size, 16, 100, efSearch);
+                log.info("{}", result);
+                assertTrue(result.recall() >= 0.8, "recall@" + K + " too low: " + result);
+            }
+        }
+    }
+
+    private Result compare(int size, int m, int efConstruction, int efSearch) {
+        Random random = new Random(7);
+        float[][] centers = new float[CLUSTERS][];
+        for (int c = 0; c < CLUSTERS; c++) {
+            centers[c] = gaussian(random, 1f, null);
+        }
+
+        InMemoryEmbeddingStore store = new InMemoryEmbeddingStore(DIMENSION, 4096, new ScalarDotProduct());
+        ExactVectorIndex exact = new ExactVectorIndex(store, 0);
+        HnswVectorIndex hnsw = new HnswVectorIndex(store, m, efConstruction, efSearch);
+
+        long buildStart = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            float[] vector = gaussian(random, 0.3f, centers[random.nextInt(CLUSTERS)]);
+            int id = store.add(new DocumentEmbedding("doc-" + i, "text/plain", vector, Map.of(), LocalDateTime.now()));
+            hnsw.add(id);
+        }
+        long buildNanos = System.nanoTime() - buildStart;
+
+        float[][] queries = new float[QUERIES][];
+        for (int q = 0; q < QUERIES; q++) {
+            queries[q] = gaussian(random, 0.3f, centers[random.nextInt(CLUSTERS)]);
+        }
+
+        long exactNanos = 0;
+        long hnswNanos = 0;
+        int found = 0;
+        try {
+            for (float[] query : queries) {
+                long start = System.nanoTime();
+                List<SearchHit> expected = exact.search(query, K);
+                exactNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                List<SearchHit> actual = hnsw.search(query, K);
+                hnswNanos += System.nanoTime() - start;
+
+                Set<Integer> expectedIds = new HashSet<>();
+                expected.forEach(hit -> expectedIds.add(hit.id()));
+                for (SearchHit hit : actual) {
+                    if (expectedIds.contains(hit.id())) {
+                        found++;
+                    }
+                }
+            }
+        } finally {
+            exact.shutdown();
+        }
+
+        return new Result(size, efSearch, (double) found / (QUERIES * K),
+            exactNanos / QUERIES / 1_000, hnswNanos / QUERIES / 1_000, buildNanos / 1_000_000);
+    }
+
+    private static float[] gaussian(Random random, float scale, float[] center) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian() * scale + (center == null ? 0f : center[i]);
+        }
+        return vector;
+    }
+
+    private record Result(int size, int efSearch, double recall, long exactMicros, long hnswMicros, long buildMillis) {}
+}
@@ -0,0 +1,130 @@
+package com.agentic.riskai.ro.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.agentic.riskai.ro.model.AnalysisType;
+import com.agentic.riskai.ro.model.RiskOpportunitySummary;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Query latency of the risk finders against 1M rows in the file-backed {@code prod} database,
+ * schema and indexes from the Flyway migrations. Only runs with {@code -Ddb.loadtest=true}.
+ */
+@SpringBootTest
+@ActiveProfiles("prod")
+@Slf4j
+@EnabledIfSystemProperty(named = "db.loadtest", matches = "true")
+class RiskOpportunityRepositoryLoadTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final int CHUNK = 100_000;
+    private static final int RUNS = 50;
+
+    @Autowired
+    private RiskOpportunityRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException {
+        Path dir = Files.createTempDirectory("risk-ai-loadtest");
+        registry.add("spring.datasource.url",
+            () -> "jdbc:h2:file:" + dir.resolve("risk_ai_db") + ";CACHE_SIZE=131072;DB_CLOSE_ON_EXIT=FALSE");
+        registry.add("app.rag.store.path", () -> dir.resolve("rag").toString());
+        registry.add("app.rag.embedding.cache.disk.path", () -> dir.resolve("embeddings").toString());
+    }
+
+    @Test
+    void findersStayFastAtOneMillionRows() {
+        long loadStart = System.nanoTime();
+        for (int start = 1; start <= ROWS; start += CHUNK) {
+            int from = start;
+            int to = start + CHUNK - 1;
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "insert into risk_opportunities (id, type, title, description, category, impact_score, probability,"
+                    + " risk_score, priority, created_at, updated_at)"
+                    + " select x, case when mod(x, 2) = 0 then 'RISK' else 'OPPORTUNITY' end,"
+                    + " 'Item ' || x, 'Synthetic item ' || x, 'Category ' || mod(x, 20), 1 + rand() * 9, rand(),"
+                    + " rand() * 10, case mod(x, 4) when 0 then 'LOW' when 1 then 'MEDIUM' when 2 then 'HIGH'"
+                    + " else 'CRITICAL' end, dateadd('SECOND', x, timestamp '2024-01-01 00:00:00'), null"
+                    + " from system_range(?, ?)", from, to));
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute("analyze"));
+        log.info("Loaded {} rows in {} ms", ROWS, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - loadStart));
+
+        assertUsesIndex("select id from risk_opportunities where type = 'RISK' order by risk_score desc limit 10",
+            "IDX_RISK_OPPORTUNITIES_TYPE_SCORE");
+        assertUsesIndex("select id from risk_opportunities where priority = 'HIGH' order by risk_score desc",
+            "IDX_RISK_OPPORTUNITIES_PRIORITY_SCORE");
+        assertUsesIndex("select id from risk_opportunities where type = 'RISK' order by created_at desc",
+            "IDX_RISK_OPPORTUNITIES_TYPE_CREATED");
+
+        long topN = measure("top 10 risks", () -> repository.findByTypeOrderByRiskScoreDesc(
+            AnalysisType.RISK, Limit.of(10), RiskOpportunitySummary.class));
+        long firstPage = measure("first page by type", () -> repository.findByType(AnalysisType.OPPORTUNITY,
+            PageRequest.of(0, 50, Sort.by(Sort.Direction.DESC, "createdAt")), RiskOpportunitySummary.class));
+        long keyset = measure("keyset page deep in the table", () -> repository.findByIdLessThanOrderByIdDesc(
+            (long) ROWS / 2, Limit.of(50), RiskOpportunitySummary.class));
+        measure("offset page deep in the table", () -> repository.findAllBy(
+            PageRequest.of(ROWS / 100, 50, Sort.by(Sort.Direction.DESC, "id")), RiskOpportunitySummary.class));
+        long byId = measure("find by id", () -> repository.findById((long) ROWS / 3));
+
+        long limit = TimeUnit.MILLISECONDS.toNanos(50);
+        assertTrue(topN < limit, "top-N p50 " + topN + " ns");
+        assertTrue(keyset < limit, "keyset p50 " + keyset + " ns");
+        assertTrue(byId < limit, "findById p50 " + byId + " ns");
+        // The paged query also counts all rows of the type, so it gets more room
+        assertTrue(firstPage < 10 * limit, "first page p50 " + firstPage + " ns");
+    }
+
+    private void assertUsesIndex(String sql, String index) {
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+        log.info("{}", plan);
+        assertTrue(plan.toUpperCase().contains(index), "expected " + index + " in plan: " + plan);
+    }
+
+    /**
+     * Runs {@code query} a few times to warm up, then {@value #RUNS} times; prints p50 and p99
+     * and returns p50 in nanoseconds.
+     */
+    private long measure(String name, Runnable query) {
+        for (int i = 0; i < 5; i++) {
+            query.run();
+        }
+        long[] nanos = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            query.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        long p50 = nanos[RUNS / 2];
+        long p99 = nanos[RUNS * 99 / 100];
+        log.info(String.format("%-32s p50 %7.2f ms  p99 %7.2f ms", name, p50 / 1e6, p99 / 1e6));
+        return p50;
+    }
+}
@@ -0,0 +1,74 @@
+package com.agentic.riskai.ro.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    @Test
+    void tokenBucketAllowsBurstThenRefillsAtRate() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(10, 3, clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire());
+        }
+        long wait = bucket.tryAcquire();
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), wait, TimeUnit.MICROSECONDS.toNanos(1));
+
+        clock.addAndGet(wait);
+        assertEquals(0, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+    }
+
+    @Test
+    void aimdLimitGrowsUnderLoadAndBacksOffOnDrops() {
+        AimdLimiter limiter = new AimdLimiter(4, 1, 8, 0.5);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+        for (int i = 0; i < 4; i++) {
+            limiter.onSuccess();
+        }
+        assertEquals(4, limiter.limit());
+        for (int round = 0; round < 20; round++) {
+            while (limiter.tryAcquire()) {
+                // fill up to the limit
+            }
+            for (int i = limiter.inFlight(); i > 0; i--) {
+                limiter.onSuccess();
+            }
+        }
+        assertEquals(8, limiter.limit());
+
+        assertTrue(limiter.tryAcquire());
+        limiter.onDropped();
+        assertEquals(4, limiter.limit());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void retryPolicyOnlyRetriesThrottlingWithinAttempts() {
+        RetryPolicy policy = new RetryPolicy(3, Duration.ofMillis(100), Duration.ofSeconds(1));
+
+        assertTrue(policy.shouldRetry(1, 429, 0));
+        assertTrue(policy.shouldRetry(2, 503, 0));
+        assertFalse(policy.shouldRetry(3, 503, 0));
+        assertFalse(policy.shouldRetry(1, 500, 0));
+        assertFalse(policy.shouldRetry(1, 429, TimeUnit.SECONDS.toNanos(5)));
+        for (int retry = 1; retry < 10; retry++) {
+            long delay = policy.backoffNanos(retry, 0);
+            assertTrue(delay >= 0 && delay <= TimeUnit.SECONDS.toNanos(1));
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(700), policy.backoffNanos(1, TimeUnit.MILLISECONDS.toNanos(700)));
+    }
+}
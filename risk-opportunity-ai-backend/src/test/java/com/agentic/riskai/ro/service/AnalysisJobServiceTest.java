@@ -0,0 +1,123 @@
+package com.agentic.riskai.ro.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.agentic.riskai.ro.model.AnalysisJobEntity;
+import com.agentic.riskai.ro.model.PriorityLevel;
+import com.agentic.riskai.ro.repository.AnalysisJobRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Job ordering and failure handling with one worker, an in-memory stub repository and a stub
+ * AI service that fails queries starting with "fail".
+ */
+class AnalysisJobServiceTest {
+
+    private final Map<String, AnalysisJobEntity> stored = new ConcurrentHashMap<>();
+    private final AnalysisJobRepository jobRepository = mock(AnalysisJobRepository.class);
+    private final RiskOpportunityAIService aiService = mock(RiskOpportunityAIService.class);
+    private final Queue<String> started = new ConcurrentLinkedQueue<>();
+    private final CompletableFuture<String> blocker = new CompletableFuture<>();
+    private final AnalysisJobService service;
+
+    AnalysisJobServiceTest() {
+        when(jobRepository.save(any(AnalysisJobEntity.class))).thenAnswer(invocation -> {
+            AnalysisJobEntity job = invocation.getArgument(0);
+            if (job.getError() != null && job.getError().length() > 2000) {
+                throw new IllegalStateException("value too long for column error");
+            }
+            stored.put(job.getId(), job);
+            return job;
+        });
+        when(jobRepository.findById(anyString())).thenAnswer(invocation ->
+            Optional.ofNullable(stored.get(invocation.<String>getArgument(0))));
+        when(aiService.getAIAnalysisWithRAGAsync(anyString(), eq(false))).thenAnswer(invocation -> {
+            String query = invocation.getArgument(0);
+            started.add(query);
+            if (query.equals("blocker")) {
+                return blocker;
+            }
+            if (query.startsWith("fail")) {
+                return CompletableFuture.failedFuture(new GeminiApiException(500, "x".repeat(5000)));
+            }
+            return CompletableFuture.completedFuture("analysis of " + query);
+        });
+        service = new AnalysisJobService(jobRepository, aiService, mock(RiskOpportunityService.class),
+            new ObjectMapper(), 1, 100, List.of());
+    }
+
+    @AfterEach
+    void shutdown() {
+        blocker.complete("done");
+        service.shutdown();
+    }
+
+    @Test
+    void queuedJobsRunHighestPriorityFirst() {
+        AnalysisJobEntity first = service.submitRagAnalysis("blocker", PriorityLevel.LOW, null);
+        awaitStatus(first.getId(), AnalysisJobEntity.Status.RUNNING);
+
+        // The only worker is busy, so these queue up
+        AnalysisJobEntity low = service.submitRagAnalysis("low", PriorityLevel.LOW, null);
+        AnalysisJobEntity medium = service.submitRagAnalysis("medium", null, null);
+        AnalysisJobEntity critical = service.submitRagAnalysis("critical", PriorityLevel.CRITICAL, null);
+        AnalysisJobEntity secondMedium = service.submitRagAnalysis("medium 2", PriorityLevel.MEDIUM, null);
+        blocker.complete("done");
+
+        awaitStatus(low.getId(), AnalysisJobEntity.Status.COMPLETED);
+        assertEquals(List.of("blocker", "critical", "medium", "medium 2", "low"), List.copyOf(started));
+        assertEquals("analysis of critical", stored.get(critical.getId()).getResult());
+        assertEquals(AnalysisJobEntity.Status.COMPLETED, stored.get(medium.getId()).getStatus());
+        assertEquals(AnalysisJobEntity.Status.COMPLETED, stored.get(secondMedium.getId()).getStatus());
+    }
+
+    @Test
+    void failingJobIsMarkedFailedWithItsErrorTruncated() {
+        blocker.complete("done");
+        AnalysisJobEntity job = service.submitRagAnalysis("fail please", PriorityLevel.HIGH, null);
+
+        AnalysisJobEntity failed = awaitStatus(job.getId(), AnalysisJobEntity.Status.FAILED);
+        assertTrue(failed.getError().length() <= 2000, "error length " + failed.getError().length());
+        assertTrue(failed.getFinishedAt() != null);
+    }
+
+    @Test
+    void fieldsLongerThanTheirColumnsAreRefused() {
+        assertThrows(IllegalArgumentException.class,
+            () -> service.submitRagAnalysis("q".repeat(4001), PriorityLevel.LOW, null));
+        assertThrows(IllegalArgumentException.class,
+            () -> service.submitRagAnalysis("query", PriorityLevel.LOW, "https://example.com/" + "p".repeat(255)));
+        assertTrue(stored.isEmpty());
+    }
+
+    private AnalysisJobEntity awaitStatus(String jobId, AnalysisJobEntity.Status status) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            AnalysisJobEntity job = stored.get(jobId);
+            if (job != null && job.getStatus() == status) {
+                return job;
+            }
+            Thread.onSpinWait();
+        }
+        throw new AssertionError("Job " + jobId + " did not reach " + status + ": " + stored.get(jobId));
+    }
+}
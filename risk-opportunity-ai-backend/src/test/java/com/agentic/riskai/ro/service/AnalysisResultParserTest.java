@@ -0,0 +1,127 @@
+package com.agentic.riskai.ro.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.agentic.riskai.ro.model.RiskAnalysisResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tolerant parsing of analysis answers and streaming text extraction. The allocation
+ * comparison only runs with {@code -Djson.benchmark=true}.
+ */
+@Slf4j
+class AnalysisResultParserTest {
+
+    private static final String JSON = """
+        {"category": "Technical", "impactScore": 7, "probability": 0.4, "priority": "HIGH",
+         "detailedAnalysis": "Vendor {lock-in} \\"risk\\"", "keyFactors": ["vendor", "cost"]}""";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AnalysisResultParser parser = new AnalysisResultParser(objectMapper);
+
+    @Test
+    void fencedAndSurroundedJsonIsRead() throws IOException {
+        RiskAnalysisResult result = parser.parse("Here is the analysis:\n```json\n" + JSON + "\n```\nHope this helps {!}");
+
+        assertEquals("Technical", result.getCategory());
+        assertEquals(7.0, result.getImpactScore());
+        assertEquals("Vendor {lock-in} \"risk\"", result.getDetailedAnalysis());
+        assertEquals(List.of("vendor", "cost"), result.getKeyFactors());
+    }
+
+    @Test
+    void cutOffJsonIsClosedAfterItsLastCompleteValue() throws IOException {
+        assertEquals("{\"category\": \"Market\", \"keyFactors\": [\"demand\"]}", AnalysisResultParser.extractObject(
+            "```json\n{\"category\": \"Market\", \"keyFactors\": [\"demand\", \"pri"));
+        assertEquals("{}", AnalysisResultParser.extractObject("{\"impactScore\": 3."));
+        assertEquals("{\"probability\": 0.4}", AnalysisResultParser.extractObject("{\"probability\": 0.4, \"impactScore\": 0.5"));
+        assertEquals("{\"probability\": 0.5}", AnalysisResultParser.extractObject("{\"probability\": 0.5, \"priority\":"));
+        assertEquals("{\"a\": {\"b\": [1, 2,], }}", AnalysisResultParser.extractObject("{\"a\": {\"b\": [1, 2,], }"));
+    }
+
+    @Test
+    void answerMissingARequiredFieldIsRejected() throws IOException {
+        String complete = JSON.strip();
+        String cutInKeyFactors = complete.substring(0, complete.indexOf("\"cost\"") + 3);
+        assertEquals(List.of("vendor"), parser.parse(cutInKeyFactors).getKeyFactors());
+
+        String cutInPriority = complete.substring(0, complete.indexOf("\"HIGH\"") + 3);
+        IOException error = assertThrows(IOException.class, () -> parser.parse(cutInPriority));
+        assertTrue(error.getMessage().contains("priority"), error.getMessage());
+        assertThrows(IOException.class, () -> parser.parse("{\"probability\": 0.5, \"impactScore\": 3."));
+        assertThrows(IOException.class, () -> parser.parse("{\"category\": \"Market\", \"impactScore\": null}"));
+        assertThrows(IOException.class, () -> parser.parse("I cannot analyze this."));
+    }
+
+    @Test
+    void candidateTextIsReadWithoutATree() throws IOException {
+        String response = """
+            {"candidates": [{"content": {"parts": [{"text": "Hello"}, {"thought": true}, {"text": ", world"}],
+              "role": "model"}, "finishReason": "STOP"}, {"content": {"parts": [{"text": "ignored"}]}}],
+             "usageMetadata": {"promptTokenCount": 3}}""";
+
+        assertEquals("Hello, world", GeminiResponseReader.firstCandidateText(objectMapper.getFactory(), response));
+        assertTrue(GeminiResponseReader.firstCandidate(objectMapper.getFactory(), response).finished());
+        assertFalse(GeminiResponseReader.firstCandidate(objectMapper.getFactory(),
+            "{\"candidates\": [{\"content\": {\"parts\": [{\"text\": \"{\\\"cat\"}]}, \"finishReason\": \"MAX_TOKENS\"}]}")
+            .finished());
+        assertNull(GeminiResponseReader.firstCandidateText(objectMapper.getFactory(), "{\"promptFeedback\": {}}"));
+        assertNull(GeminiResponseReader.firstCandidateText(objectMapper.getFactory(),
+            "{\"candidates\": [{\"finishReason\": \"SAFETY\"}]}"));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "json.benchmark", matches = "true")
+    void sharedReadersAllocateLessPerResponse() throws IOException {
+        String response = "{\"candidates\": [{\"content\": {\"parts\": [{\"text\": "
+            + objectMapper.writeValueAsString(JSON) + "}], \"role\": \"model\"}, \"finishReason\": \"STOP\","
+            + " \"safetyRatings\": [{\"category\": \"HARM_CATEGORY_HARASSMENT\", \"probability\": \"NEGLIGIBLE\"}]}],"
+            + " \"usageMetadata\": {\"promptTokenCount\": 412, \"candidatesTokenCount\": 96}}";
+
+        long tree = bytesPerCall(() -> {
+            JsonNode root = objectMapper.readTree(response);
+            return root.path("candidates").path(0).path("content").path("parts").path(0).path("text").asText();
+        });
+        long streaming = bytesPerCall(() -> GeminiResponseReader.firstCandidateText(objectMapper.getFactory(), response));
+        long mapperPerCall = bytesPerCall(() -> new ObjectMapper().readValue(JSON, RiskAnalysisResult.class));
+        long sharedReader = bytesPerCall(() -> parser.parse(JSON));
+
+        log.info("bytes/op: tree {}, streaming {}, new ObjectMapper {}, shared reader {}",
+            tree, streaming, mapperPerCall, sharedReader);
+        assertTrue(streaming < tree, "streaming " + streaming + " >= tree " + tree);
+        assertTrue(sharedReader < mapperPerCall, "shared " + sharedReader + " >= per call " + mapperPerCall);
+    }
+
+    private static long bytesPerCall(ThrowingCall call) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int warmup = 20_000;
+        int runs = 50_000;
+        for (int i = 0; i < warmup; i++) {
+            call.run();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < runs; i++) {
+            call.run();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / runs;
+    }
+
+    @FunctionalInterface
+    private interface ThrowingCall {
+        Object run() throws IOException;
+    }
+}
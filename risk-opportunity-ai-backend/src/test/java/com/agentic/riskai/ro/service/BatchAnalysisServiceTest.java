@@ -0,0 +1,135 @@
+package com.agentic.riskai.ro.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.agentic.riskai.ro.model.AnalysisRequest;
+import com.agentic.riskai.ro.model.AnalysisType;
+import com.agentic.riskai.ro.model.BatchAnalysisStatus;
+import com.agentic.riskai.ro.model.RiskAnalysisResult;
+import com.agentic.riskai.ro.model.RiskOpportunityEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The two-stage batch pipeline against stubs: Gemini fails descriptions starting with "fail",
+ * and the database refuses titles starting with "bad".
+ */
+class BatchAnalysisServiceTest {
+
+    private static final int CONCURRENCY = 2;
+
+    private final RiskOpportunityAIService aiService = mock(RiskOpportunityAIService.class);
+    private final RiskOpportunityService riskOpportunityService = mock(RiskOpportunityService.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final Queue<String> saved = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger batchSaves = new AtomicInteger();
+    private final BatchAnalysisService service =
+        new BatchAnalysisService(aiService, riskOpportunityService, CONCURRENCY, 3, Duration.ofMillis(50));
+
+    BatchAnalysisServiceTest() {
+        when(aiService.analyzeRiskOpportunityAsync(anyString(), any(AnalysisType.class), eq(false)))
+            .thenAnswer(invocation -> {
+                String description = invocation.getArgument(0);
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                return CompletableFuture.supplyAsync(() -> {
+                    inFlight.decrementAndGet();
+                    if (description.startsWith("fail")) {
+                        throw new GeminiApiException(503, "unavailable");
+                    }
+                    return new RiskAnalysisResult("Technical", 5, 0.5, "MEDIUM", description, null, null, List.of());
+                }, CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS));
+            });
+        when(riskOpportunityService.saveAnalyses(anyList(), anyList())).thenAnswer(invocation -> {
+            List<AnalysisRequest> requests = invocation.getArgument(0);
+            if (requests.stream().anyMatch(request -> request.getTitle().startsWith("bad"))) {
+                throw new IllegalArgumentException("value too long");
+            }
+            batchSaves.incrementAndGet();
+            requests.forEach(request -> saved.add(request.getTitle()));
+            return List.of();
+        });
+        when(riskOpportunityService.saveAnalysis(anyString(), anyString(), any(), any())).thenAnswer(invocation -> {
+            String title = invocation.getArgument(0);
+            if (title.startsWith("bad")) {
+                throw new IllegalArgumentException("value too long");
+            }
+            saved.add(title);
+            return new RiskOpportunityEntity();
+        });
+    }
+
+    @AfterEach
+    void shutdown() {
+        service.shutdown();
+    }
+
+    @Test
+    void itemsAreCountedAsPersistedOrFailed() {
+        List<AnalysisRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            requests.add(request("item-" + i, "description " + i));
+        }
+        requests.add(request("bad-1", "description of a bad item"));
+        requests.add(request("item-failing", "fail at Gemini"));
+        requests.add(request("item-blank", " "));
+
+        BatchAnalysisStatus status = awaitFinished(service.submit(requests).getJobId());
+
+        assertEquals("COMPLETED", status.getStatus());
+        assertEquals(11, status.getItemsReceived());
+        assertEquals(9, status.getItemsAnalyzed());
+        assertEquals(8, status.getItemsPersisted());
+        assertEquals(3, status.getItemsFailed()); // Gemini failure, blank description, refused save
+        assertEquals(0, status.getInFlight());
+        assertEquals(8, saved.size());
+        assertTrue(saved.stream().noneMatch(title -> title.startsWith("bad")));
+        assertTrue(maxInFlight.get() <= CONCURRENCY, "in flight: " + maxInFlight.get());
+        assertTrue(batchSaves.get() >= 1, "no batch was saved in one go");
+    }
+
+    @Test
+    void emptyBatchFinishes() {
+        BatchAnalysisStatus status = awaitFinished(service.submit(List.of()).getJobId());
+
+        assertEquals("COMPLETED", status.getStatus());
+        assertEquals(0, status.getItemsPersisted());
+    }
+
+    private static AnalysisRequest request(String title, String description) {
+        AnalysisRequest request = new AnalysisRequest();
+        request.setTitle(title);
+        request.setDescription(description);
+        request.setType(AnalysisType.RISK);
+        return request;
+    }
+
+    private BatchAnalysisStatus awaitFinished(String jobId) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            BatchAnalysisStatus status = service.getStatus(jobId).orElseThrow();
+            if (!"RUNNING".equals(status.getStatus())) {
+                return status;
+            }
+            Thread.onSpinWait();
+        }
+        throw new AssertionError("Batch job " + jobId + " did not finish");
+    }
+}
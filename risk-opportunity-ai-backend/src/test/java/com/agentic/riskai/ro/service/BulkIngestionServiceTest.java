@@ -0,0 +1,146 @@
+package com.agentic.riskai.ro.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import com.agentic.riskai.ro.model.BulkIngestionStatus;
+import com.agentic.riskai.ro.model.DocumentUploadRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Queueing, end-of-input and failure accounting of bulk jobs, against a stub {@link RagService}
+ * that fails any batch holding a document with "boom" in it.
+ */
+class BulkIngestionServiceTest {
+
+    private final Queue<String> stored = new ConcurrentLinkedQueue<>();
+    private final RagService ragService = mock(RagService.class);
+    private BulkIngestionService service;
+
+    BulkIngestionServiceTest() {
+        when(ragService.storeDocuments(anyList())).thenAnswer(invocation -> {
+            List<DocumentUploadRequest> documents = invocation.getArgument(0);
+            if (documents.stream().anyMatch(document -> document.getContent().contains("boom"))) {
+                throw new IllegalStateException("embedding failed");
+            }
+            documents.forEach(document -> stored.add(document.getContent()));
+            return documents.size() * 2;
+        });
+    }
+
+    @AfterEach
+    void shutdown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void documentsAreCountedAsIndexedOrFailed() {
+        service = service(4, 1, 1, 100);
+        BulkIngestionStatus started = service.ingestNdjson(ndjson("a", "", "boom", "b"));
+
+        BulkIngestionStatus status = awaitFinished(started.getJobId());
+        assertEquals("COMPLETED", status.getStatus());
+        assertEquals(4, status.getDocumentsReceived());
+        assertEquals(2, status.getDocumentsIndexed());
+        assertEquals(2, status.getDocumentsFailed());
+        assertEquals(4, status.getChunksIndexed());
+        assertEquals(List.of("a", "b"), List.copyOf(stored));
+    }
+
+    @Test
+    void invalidInputFailsTheJobAfterIndexingWhatCameBefore() {
+        service = service(4, 2, 2, 100);
+        InputStream body = new ByteArrayInputStream(
+            "{\"content\": \"a\"}\n{\"content\": \"b\"}\n[1]".getBytes(StandardCharsets.UTF_8));
+        BulkIngestionStatus status = awaitFinished(service.ingestNdjson(body).getJobId());
+
+        assertEquals("FAILED", status.getStatus());
+        assertNotNull(status.getError());
+        assertEquals(2, status.getDocumentsIndexed());
+        assertEquals(0, status.getQueuedDocuments());
+    }
+
+    @Test
+    void concurrentJobsAreIndexedSideBySide() throws Exception {
+        service = service(1, 1, 2, 100);
+        PipedOutputStream firstUpload = new PipedOutputStream();
+        PipedInputStream firstBody = new PipedInputStream(firstUpload);
+        CompletableFuture<BulkIngestionStatus> first = CompletableFuture.supplyAsync(() -> service.ingestNdjson(firstBody));
+        firstUpload.write("{\"content\": \"first\"}\n".getBytes(StandardCharsets.UTF_8));
+        firstUpload.flush();
+
+        // The first upload is still open; the second must not wait for it to end
+        BulkIngestionStatus second = assertTimeoutPreemptively(Duration.ofSeconds(10),
+            () -> awaitFinished(service.ingestNdjson(ndjson("x", "y", "z")).getJobId()));
+        assertEquals(3, second.getDocumentsIndexed());
+        assertFalse(first.isDone());
+
+        firstUpload.close();
+        BulkIngestionStatus firstStatus = awaitFinished(first.get().getJobId());
+        assertEquals("COMPLETED", firstStatus.getStatus());
+        assertEquals(1, firstStatus.getDocumentsIndexed());
+    }
+
+    @Test
+    void textFilesAreSplitIntoOverlappingSections() {
+        service = service(8, 8, 1, 10);
+        MockMultipartFile text = new MockMultipartFile("files", "notes.txt", "text/plain",
+            "abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.UTF_8));
+        MockMultipartFile json = new MockMultipartFile("files", "docs.json", "application/json",
+            "[{\"content\": \"from json\"}]".getBytes(StandardCharsets.UTF_8));
+
+        BulkIngestionStatus status = awaitFinished(service.ingestFiles(List.of(text, json)).getJobId());
+        assertEquals("COMPLETED", status.getStatus());
+        assertEquals(4, status.getDocumentsIndexed());
+        assertEquals(List.of("abcdefghij", "ijklmnopqr", "qrstuvwxyz", "from json"), List.copyOf(stored));
+    }
+
+    private BulkIngestionService service(int queueCapacity, int batchSize, int workers, int sectionSize) {
+        return new BulkIngestionService(ragService, new ObjectMapper(), queueCapacity, batchSize, workers,
+            sectionSize, 2);
+    }
+
+    private static InputStream ndjson(String... contents) {
+        StringBuilder body = new StringBuilder();
+        for (String content : contents) {
+            body.append("{\"content\": \"").append(content).append("\", \"contentType\": \"text/plain\"}\n");
+        }
+        return new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private BulkIngestionStatus awaitFinished(String jobId) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            BulkIngestionStatus status = service.getStatus(jobId).orElseThrow();
+            if (!"RUNNING".equals(status.getStatus())) {
+                return status;
+            }
+            Thread.onSpinWait();
+        }
+        throw new AssertionError("Bulk job " + jobId + " did not finish");
+    }
+}
@@ -0,0 +1,35 @@
+package com.agentic.riskai.ro.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CallbackUrlPolicyTest {
+
+    @Test
+    void internalAddressesAreRefused() {
+        CallbackUrlPolicy policy = new CallbackUrlPolicy(List.of());
+        for (String url : List.of(
+                "http://127.0.0.1:8090/api", "http://localhost/hook", "http://169.254.169.254/latest/meta-data/",
+                "http://10.1.2.3/hook", "https://192.168.0.10/hook", "http://172.16.5.4/hook", "http://100.64.0.1/",
+                "http://0.0.0.0/", "http://[::1]/hook", "http://[fd00::1]/hook", "http://[::ffff:127.0.0.1]/hook",
+                "ftp://93.184.216.34/hook", "http://user@93.184.216.34/hook", "not a url")) {
+            assertThrows(IllegalArgumentException.class, () -> policy.check(url), url);
+        }
+        assertEquals("93.184.216.34", policy.check("https://93.184.216.34/hook").getHost());
+    }
+
+    @Test
+    void allowListRestrictsHosts() {
+        CallbackUrlPolicy policy = new CallbackUrlPolicy(List.of("93.184.216.34", ".example.org", " "));
+
+        assertEquals("93.184.216.34", policy.check("http://93.184.216.34/hook").getHost());
+        assertThrows(IllegalArgumentException.class, () -> policy.check("http://93.184.216.35/hook"));
+        // On the list but internal: still refused
+        assertThrows(IllegalArgumentException.class,
+            () -> new CallbackUrlPolicy(List.of("127.0.0.1")).check("http://127.0.0.1/hook"));
+    }
+}
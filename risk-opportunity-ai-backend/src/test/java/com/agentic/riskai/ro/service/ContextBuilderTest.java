@@ -0,0 +1,79 @@
+package com.agentic.riskai.ro.service;
+
+import org.junit.jupiter.api.Test;
+
+import com.agentic.riskai.ro.rag.SearchHit;
+import com.agentic.riskai.ro.rag.StoredDocument;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContextBuilderTest {
+
+    private static final String PARENT = "Alpha beta gamma delta epsilon zeta eta theta iota kappa";
+
+    @Test
+    void overlappingChunksOfOneDocumentArePackedOnce() {
+        // [17, 50) repeats "delta epsilon" from [0, 30); [6, 22) is inside it; q holds a copy
+        List<StoredDocument> documents = List.of(
+            chunk("p", 0, 30), chunk("p", 17, 50), chunk("p", 6, 22), chunk("q", 0, 30));
+
+        ContextBuilder.PackedContext context = new ContextBuilder(1000)
+            .pack(hits(0, 1, 2, 3), documents::get);
+
+        assertEquals(List.of(0, 1), context.ids());
+        assertEquals("Alpha beta gamma delta epsilon\n\nzeta eta theta iota", context.text().toString());
+        assertEquals(TokenEstimator.estimate(context.text()), context.tokens());
+    }
+
+    @Test
+    void contextStaysWithinTheBudget() {
+        String huge = "risk ".repeat(5000);
+        List<StoredDocument> documents = List.of(document(huge), document("small supplier note"));
+
+        ContextBuilder.PackedContext context = new ContextBuilder(100).pack(hits(0, 1), documents::get);
+
+        assertEquals(List.of(0), context.ids());
+        assertTrue(context.tokens() <= 100, "tokens " + context.tokens());
+        assertTrue(TokenEstimator.estimate(context.text()) <= 100);
+        assertTrue(context.text().length() > 0);
+    }
+
+    @Test
+    void tokensAreEstimatedPerWordDigitRunAndSymbol() {
+        assertEquals(0, TokenEstimator.estimate("  \n "));
+        assertEquals(3, TokenEstimator.estimate("ISO 27001"));
+        assertEquals(4, TokenEstimator.estimate("mitigation, now"));
+        assertEquals(8, TokenEstimator.prefixLength("one two three", 2));
+    }
+
+    @Test
+    void templatesRenderNamedPlaceholdersAndKeepJsonBraces() {
+        PromptTemplate template = PromptTemplate.compile("Q: {{query}}\n{ \"ctx\": \"{{context}}\" } {{query}}",
+            "context", "query");
+
+        assertEquals("Q: why\n{ \"ctx\": \"none\" } why", template.render("none", "why"));
+        assertEquals("Q: a\n{ \"ctx\": \"b\" } a", template.render("b", "a"));
+        assertThrows(IllegalArgumentException.class, () -> PromptTemplate.compile("{{missing}}", "query"));
+    }
+
+    private static List<SearchHit> hits(int... ids) {
+        return Arrays.stream(ids).mapToObj(id -> new SearchHit(id, 1f - id * 0.1f)).toList();
+    }
+
+    private static StoredDocument chunk(String parent, int start, int end) {
+        return new StoredDocument(PARENT.substring(start, end), "text/plain",
+            Map.of(RagService.PARENT_ID, parent, RagService.CHUNK_START, start, RagService.CHUNK_END, end),
+            LocalDateTime.now());
+    }
+
+    private static StoredDocument document(String content) {
+        return new StoredDocument(content, "text/plain", Map.of(), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,76 @@
+package com.agentic.riskai.ro.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallsForTheSameKeyShareOneCall() {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flights.execute("a", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> second = flights.execute("a", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        assertEquals(1, flights.inFlight());
+
+        upstream.complete("result");
+        assertEquals("result", first.join());
+        assertEquals("result", second.join());
+        assertEquals(1, calls.get());
+        assertEquals(0, flights.inFlight());
+    }
+
+    @Test
+    void completedCallsAreNotReused() {
+        SingleFlight<String, Integer> flights = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        int first = flights.run("a", calls::incrementAndGet);
+        int second = flights.run("a", calls::incrementAndGet);
+
+        assertEquals(1, first);
+        assertEquals(2, second);
+    }
+
+    @Test
+    void failuresReachEveryWaiterAndAreNotKept() {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = flights.execute("a", () -> upstream);
+        CompletableFuture<String> second = flights.execute("a", () -> upstream);
+
+        upstream.completeExceptionally(new IllegalStateException("boom"));
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+        assertThrows(IllegalStateException.class, () -> flights.run("a", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals("ok", flights.run("a", () -> "ok"));
+    }
+
+    @Test
+    void cancellingOneCallerDoesNotCancelTheSharedCall() {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = flights.execute("a", () -> upstream);
+        CompletableFuture<String> second = flights.execute("a", () -> upstream);
+
+        first.cancel(true);
+        upstream.complete("result");
+        assertEquals("result", second.join());
+    }
+}
@@ -8,6 +8,7 @@ import {
   TableContainer,
   TableHead,
   TableRow,
+  TablePagination,
   Paper,
   Chip,
   IconButton,
@@ -21,6 +22,9 @@ import axios from "axios";
 
 const AnalysisHistory = ({ refresh }) => {
   const [analyses, setAnalyses] = useState([]);
+  const [page, setPage] = useState(0);
+  const [rowsPerPage, setRowsPerPage] = useState(25);
+  const [total, setTotal] = useState(0);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState("");
 
@@ -28,9 +32,16 @@ const AnalysisHistory = ({ refresh }) => {
     try {
       setLoading(true);
       const response = await axios.get(
-        "http://localhost:8090/api/risk-opportunity"
+        "http://localhost:8090/api/risk-opportunity",
+        { params: { page, size: rowsPerPage } }
       );
-      setAnalyses(response.data);
+      if (response.data.content.length === 0 && page > 0) {
+        // The last row of this page was deleted
+        setPage(page - 1);
+        return;
+      }
+      setAnalyses(response.data.content);
+      setTotal(response.data.totalElements);
       setError("");
     } catch (err) {
       setError("Failed to fetch analysis history: " + err.message);
@@ -41,7 +52,19 @@ const AnalysisHistory = ({ refresh }) => {
 
   useEffect(() => {
     fetchAnalyses();
-  }, [refresh]);
+  }, [refresh, page, rowsPerPage]);
+
+  const handleView = async (id) => {
+    try {
+      // The page holds summaries, the analysis text is fetched on demand
+      const response = await axios.get(
+        `http://localhost:8090/api/risk-opportunity/${id}`
+      );
+      alert(`Details: ${response.data.aiAnalysis}`);
+    } catch (err) {
+      setError("Failed to fetch analysis: " + err.message);
+    }
+  };
 
   const handleDelete = async (id) => {
     try {
@@ -290,7 +313,7 @@ const AnalysisHistory = ({ refresh }) => {
                       size="small"
                       color="primary"
                       sx={{ fontSize: "2rem" }}
-                      onClick={() => alert(`Details: ${analysis.aiAnalysis}`)}
+                      onClick={() => handleView(analysis.id)}
                     >
                       <Visibility fontSize="midium" />
                     </IconButton>
@@ -319,14 +342,32 @@ const AnalysisHistory = ({ refresh }) => {
       )}
 
       {analyses.length > 0 && (
-        <Box mt={0.3}>
+        <Box
+          mt={0.3}
+          display="flex"
+          alignItems="center"
+          justifyContent="space-between"
+        >
           <Typography
             variant="body2"
             color="textSecondary"
             sx={{ fontWeight: "bold", fontSize: "0.7rem" }}
           >
-            Total analysis: {analyses.length}
+            Total analysis: {total}
           </Typography>
+          <TablePagination
+            component="div"
+            count={total}
+            page={page}
+            onPageChange={(event, newPage) => setPage(newPage)}
+            rowsPerPage={rowsPerPage}
+            onRowsPerPageChange={(event) => {
+              setRowsPerPage(parseInt(event.target.value, 10));
+              setPage(0);
+            }}
+            rowsPerPageOptions={[10, 25, 50, 100]}
+            sx={{ fontSize: "0.7rem" }}
+          />
         </Box>
       )}
     </Box>